@@ -28,6 +28,14 @@ public class ApplicationTest extends ActivityInstrumentationTestCase2<SplashActi
     @TargetApi(Build.VERSION_CODES.HONEYCOMB_MR2)
     @Override
     public void setUp() throws Exception {
+        //The installed apps are still streaming in when the list is first shown; synthetic rows are
+        //all there at once and always the same.
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                DemoData.replace(new SyntheticData(1000));
+            }
+        });
         solo = new Solo(getInstrumentation(), getActivity());
 
         Display display = getActivity().getWindowManager().getDefaultDisplay();
@@ -90,13 +98,13 @@ public class ApplicationTest extends ActivityInstrumentationTestCase2<SplashActi
         solo.waitForView(R.id.reservedNamedId);
         solo.drag(0, 0, 500, 0, 10);
         solo.drag(size.x - 5, size.x - 5, 500, -100, 25);
-        Assert.assertEquals(((MaterialScrollBar) solo.getView(R.id.reservedNamedId)).getIndicatorText(), SplashActivity.pkgLabelList.get(0));
+        Assert.assertEquals(((MaterialScrollBar) solo.getView(R.id.reservedNamedId)).getIndicatorText(), DemoData.get(getActivity()).getLabel(0));
     }
 
     public void testAlphabeting(){
         solo.drag(0, 0, 500, 0, 10);
         solo.drag(size.x - 5, size.x - 5, 500, -100, 25);
-        Assert.assertEquals(((MaterialScrollBar) solo.getView(R.id.reservedNamedId)).getIndicatorText(), SplashActivity.pkgLabelList.get(0).substring(0, 1));
+        Assert.assertEquals(((MaterialScrollBar) solo.getView(R.id.reservedNamedId)).getIndicatorText(), DemoData.get(getActivity()).getLabel(0).substring(0, 1));
     }
 
     @Override
@@ -2,12 +2,13 @@ package com.turingtechnologies.materialscrollbardemo;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.support.v7.app.AppCompatActivity;
-import android.support.v7.widget.LinearLayoutManager;
-import android.support.v7.widget.RecyclerView;
 import android.view.Menu;
 import android.view.MenuItem;
 
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
 import com.turingtechnologies.materialscrollbar.DateAndTimeIndicator;
 import com.turingtechnologies.materialscrollbar.MaterialScrollBar;
 
@@ -20,7 +21,9 @@ public class DateActivity extends AppCompatActivity {
         RecyclerView recyclerView = (RecyclerView) findViewById(R.id.recyclerView);
         recyclerView.setAdapter(new DemoAdapter(this));
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        new MaterialScrollBar(this, recyclerView, false).addIndicator(new DateAndTimeIndicator(this, false, true, true, true));
+        new MaterialScrollBar(this, recyclerView, false)
+                .addIndicator(new DateAndTimeIndicator(this, false, true, true, true))
+                .setLightweightBindingEnabled(true);
     }
 
     @Override
@@ -44,6 +47,9 @@ public class DateActivity extends AppCompatActivity {
             startActivity(i);
             return true;
         }
+        if (DemoData.onMenuItemSelected(this, id)) {
+            return true;
+        }
 
         return super.onOptionsItemSelected(item);
     }
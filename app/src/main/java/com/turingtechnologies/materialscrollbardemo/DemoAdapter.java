@@ -2,45 +2,101 @@ package com.turingtechnologies.materialscrollbardemo;
 
 
 import android.app.Activity;
-import android.content.Intent;
-import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.turingtechnologies.materialscrollbar.ICustomAdapter;
-import com.turingtechnologies.materialscrollbar.IDateableAdapter;
-import com.turingtechnologies.materialscrollbar.INameableAdapter;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.turingtechnologies.materialscrollbar.IBulkCustomAdapter;
+import com.turingtechnologies.materialscrollbar.IBulkDateableAdapter;
+import com.turingtechnologies.materialscrollbar.IBulkNameableAdapter;
+import com.turingtechnologies.materialscrollbar.ISortedKeyAdapter;
+import com.turingtechnologies.materialscrollbar.MaterialScrollBar;
 
 import java.util.Date;
 
-public class DemoAdapter extends RecyclerView.Adapter<DemoAdapter.ViewHolder> implements INameableAdapter, IDateableAdapter, ICustomAdapter{
+public class DemoAdapter extends RecyclerView.Adapter<DemoAdapter.ViewHolder> implements IBulkNameableAdapter, IBulkDateableAdapter, IBulkCustomAdapter, ISortedKeyAdapter, DemoData.Listener {
 
-    private Activity act;
+    private final Activity act;
+    private final DemoData data;
+    private final IconCache iconCache;
+    private RecyclerView recyclerView;
 
     DemoAdapter(Activity a){
         act = a;
+        data = DemoData.get(a);
+        iconCache = IconCache.get(a);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        this.recyclerView = recyclerView;
+        data.addListener(this);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        data.removeListener(this);
+        this.recyclerView = null;
+    }
+
+    @Override
+    public void onRowsInserted(int position, int count) {
+        notifyItemRangeInserted(position, count);
+    }
+
+    @Override
+    public void onDataChanged() {
+        act.recreate();
     }
 
     @Override
     public Character getCharacterForElement(int element) {
-        Character c = SplashActivity.pkgLabelList.get(element).charAt(0);
+        char c = data.getLabel(element).charAt(0);
         if(Character.isDigit(c)){
             c = '#';
         }
         return c;
     }
 
+    @Override
+    public void getCharactersForElements(int start, int count, char[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = getCharacterForElement(start + i);
+        }
+    }
+
     @Override
     public Date getDateForElement(int element) {
-        return new Date(SplashActivity.pkgDateList.get(element));
+        return new Date(data.getDate(element));
+    }
+
+    @Override
+    public void getDatesForElements(int start, int count, long[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = data.getDate(start + i);
+        }
     }
 
     @Override
     public String getCustomStringForElement(int element) {
-        return SplashActivity.pkgLabelList.get(element);
+        return data.getLabel(element);
+    }
+
+    @Override
+    public void getCustomStringsForElements(int start, int count, String[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = data.getLabel(start + i);
+        }
+    }
+
+    @Override
+    public String getSortKeyForElement(int element) {
+        return data.getLabel(element);
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
@@ -54,28 +110,24 @@ public class DemoAdapter extends RecyclerView.Adapter<DemoAdapter.ViewHolder> im
         }
     }
 
+    @NonNull
     @Override
-    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_layout, parent, false);
         return new ViewHolder(v);
     }
 
     @Override
-    public void onBindViewHolder(ViewHolder holder, int position) {
-        holder.label.setText(SplashActivity.pkgLabelList.get(position));
-        holder.icon.setImageDrawable(SplashActivity.pkgIconList.get(position));
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.label.setText(data.getLabel(position));
+        //Rows flying past during a fast scroll skip their icon; they are rebound once it settles.
+        boolean loadIcon = recyclerView == null || !MaterialScrollBar.isFastScrolling(recyclerView);
+        iconCache.bind(holder.icon, data.getIconPackage(position), loadIcon);
     }
 
     @Override
     public int getItemCount() {
-        try{
-            return SplashActivity.pkgLabelList.size();
-        } catch (NullPointerException e){
-            Intent i = new Intent(act, SplashActivity.class);
-            i.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-            act.startActivity(i);
-        }
-        return 0;
+        return data.size();
     }
 
 }
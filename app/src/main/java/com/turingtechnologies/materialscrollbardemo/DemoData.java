@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ */
+
+package com.turingtechnologies.materialscrollbardemo;
+
+import android.app.Activity;
+import android.content.Context;
+
+import java.util.ArrayList;
+
+/**
+ * The rows shown by every demo list: either the installed apps, which are loaded in the background
+ * and published as they arrive, or a synthetic sorted dataset of up to ten million rows for
+ * exercising the scroll bar at scale. Only accessed on the main thread.
+ */
+abstract class DemoData {
+
+    interface Listener {
+
+        void onRowsInserted(int position, int count);
+
+        void onDataChanged();
+    }
+
+    private static DemoData current;
+
+    private final ArrayList<Listener> listeners = new ArrayList<>();
+
+    static DemoData get(Context context) {
+        if (current == null) {
+            current = new InstalledApps(context.getApplicationContext());
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the dataset if a dataset item of the menu was selected.
+     *
+     * @return True if the item was a dataset item.
+     */
+    static boolean onMenuItemSelected(Activity activity, int id) {
+        DemoData data;
+        if (id == R.id.action_dataInstalledApps) {
+            data = new InstalledApps(activity.getApplicationContext());
+        } else if (id == R.id.action_data100k) {
+            data = new SyntheticData(100000);
+        } else if (id == R.id.action_data1m) {
+            data = new SyntheticData(1000000);
+        } else if (id == R.id.action_data10m) {
+            data = new SyntheticData(10000000);
+        } else {
+            return false;
+        }
+        replace(data);
+        return true;
+    }
+
+    /**
+     * Makes the dataset the one every list shows, and tells the lists showing the previous one.
+     */
+    static void replace(DemoData data) {
+        DemoData previous = current;
+        current = data;
+        if (previous != null) {
+            previous.close();
+            for (Listener listener : new ArrayList<>(previous.listeners)) {
+                listener.onDataChanged();
+            }
+        }
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    void notifyRowsInserted(int position, int count) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onRowsInserted(position, count);
+        }
+    }
+
+    /**
+     * Stops any loading still under way.
+     */
+    void close() {
+    }
+
+    abstract int size();
+
+    /**
+     * Rows are sorted by label, ignoring case.
+     */
+    abstract String getLabel(int position);
+
+    /**
+     * @return A date in milliseconds since the epoch.
+     */
+    abstract long getDate(int position);
+
+    /**
+     * @return The package whose icon the row shows, or null if it has none.
+     */
+    abstract String getIconPackage(int position);
+
+    /**
+     * @return True for datasets too large to read every label of.
+     */
+    abstract boolean isLarge();
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ */
+
+package com.turingtechnologies.materialscrollbardemo;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads app icons on a background thread the first time a row shows them and keeps the most recent
+ * ones, so memory stays bounded however long the list is.
+ */
+class IconCache {
+
+    private static final int MAX_ICONS = 64;
+
+    private static IconCache instance;
+
+    private final PackageManager packageManager;
+    private final LruCache<String, Drawable> icons = new LruCache<>(MAX_ICONS);
+    //Packages being loaded. Only touched on the main thread.
+    private final HashSet<String> pending = new HashSet<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    static IconCache get(Context context) {
+        if (instance == null) {
+            instance = new IconCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private IconCache(Context context) {
+        packageManager = context.getPackageManager();
+    }
+
+    /**
+     * Shows the icon of a package in the view, now if it is cached, otherwise once it is loaded and
+     * as long as the view still shows the same package by then.
+     *
+     * @param load Whether a missing icon should be loaded, false while the list flies past.
+     */
+    void bind(final ImageView view, final String packageName, boolean load) {
+        view.setTag(R.id.imageView, packageName);
+        Drawable icon = packageName == null ? null : icons.get(packageName);
+        view.setImageDrawable(icon);
+        if (icon != null || packageName == null || !load || !pending.add(packageName)) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Drawable loaded;
+                try {
+                    loaded = packageManager.getApplicationIcon(packageName);
+                } catch (PackageManager.NameNotFoundException e) {
+                    loaded = packageManager.getDefaultActivityIcon();
+                }
+                final Drawable result = loaded;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        pending.remove(packageName);
+                        icons.put(packageName, result);
+                        if (packageName.equals(view.getTag(R.id.imageView))) {
+                            view.setImageDrawable(result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+}
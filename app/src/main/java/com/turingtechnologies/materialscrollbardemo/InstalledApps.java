@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ */
+
+package com.turingtechnologies.materialscrollbardemo;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The launchable apps, sorted by label. Each label is resolved once on a background thread and the
+ * apps are published in small batches, each inserted at its sorted position, so the list fills in
+ * while it is already on screen. Icons are not loaded here, see {@link IconCache}.
+ */
+class InstalledApps extends DemoData {
+
+    //Published at least this often while loading.
+    private static final long PUBLISH_INTERVAL_MS = 100;
+    private static final int PUBLISH_BATCH = 16;
+
+    private static class Row {
+
+        final String label;
+        final String packageName;
+        final long date;
+
+        Row(String label, String packageName, long date) {
+            this.label = label;
+            this.packageName = packageName;
+            this.date = date;
+        }
+    }
+
+    private final ArrayList<Row> rows = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean closed = false;
+
+    InstalledApps(final Context context) {
+        Thread loader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                load(context.getPackageManager());
+            }
+        });
+        loader.setName("App Loader");
+        loader.start();
+    }
+
+    private void load(PackageManager packageManager) {
+        List<ApplicationInfo> apps = packageManager.getInstalledApplications(0);
+        ArrayList<Row> batch = new ArrayList<>();
+        long publishedAt = SystemClock.uptimeMillis();
+        for (ApplicationInfo app : apps) {
+            if (closed) {
+                return;
+            }
+            if (packageManager.getLaunchIntentForPackage(app.packageName) == null || (!BuildConfig.DEBUG && app.packageName.contains("com.turingtechnologies.youNote"))) {
+                continue;
+            }
+            long date = 0;
+            try {
+                date = packageManager.getPackageInfo(app.packageName, 0).firstInstallTime;
+            } catch (PackageManager.NameNotFoundException e) {
+                e.printStackTrace();
+            }
+            batch.add(new Row(app.loadLabel(packageManager).toString(), app.packageName, date));
+            long now = SystemClock.uptimeMillis();
+            if (batch.size() >= PUBLISH_BATCH || now - publishedAt >= PUBLISH_INTERVAL_MS) {
+                publish(batch);
+                batch = new ArrayList<>();
+                publishedAt = now;
+            }
+        }
+        publish(batch);
+    }
+
+    private void publish(final List<Row> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (closed) {
+                    return;
+                }
+                for (Row row : batch) {
+                    int position = findInsertionPoint(row.label);
+                    rows.add(position, row);
+                    notifyRowsInserted(position, 1);
+                }
+            }
+        });
+    }
+
+    private int findInsertionPoint(String label) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rows.get(mid).label.compareToIgnoreCase(label) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    void close() {
+        closed = true;
+    }
+
+    @Override
+    int size() {
+        return rows.size();
+    }
+
+    @Override
+    String getLabel(int position) {
+        return rows.get(position).label;
+    }
+
+    @Override
+    long getDate(int position) {
+        return rows.get(position).date;
+    }
+
+    @Override
+    String getIconPackage(int position) {
+        return rows.get(position).packageName;
+    }
+
+    @Override
+    boolean isLarge() {
+        return false;
+    }
+}
@@ -2,17 +2,22 @@ package com.turingtechnologies.materialscrollbardemo;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.support.v7.app.AppCompatActivity;
-import android.support.v7.widget.LinearLayoutManager;
-import android.support.v7.widget.RecyclerView;
 import android.view.Menu;
 import android.view.MenuItem;
 
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
 import com.turingtechnologies.materialscrollbar.AlphabetIndicator;
 import com.turingtechnologies.materialscrollbar.MaterialScrollBar;
+import com.turingtechnologies.materialscrollbar.QuickIndexStrip;
 
 public class MainActivity extends AppCompatActivity {
 
+    //Elements between two labels read up front for the large synthetic datasets.
+    private static final int SAMPLE_INTERVAL = 1000;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -21,7 +26,13 @@ public class MainActivity extends AppCompatActivity {
         RecyclerView recyclerView = ((RecyclerView)findViewById(R.id.recyclerView));
         recyclerView.setAdapter(new DemoAdapter(this));
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        new MaterialScrollBar(this, recyclerView, true).addIndicator(new AlphabetIndicator(this));
+        MaterialScrollBar scrollBar = new MaterialScrollBar(this, recyclerView, true)
+                .addIndicator(new AlphabetIndicator(this))
+                .setLightweightBindingEnabled(true);
+        if (DemoData.get(this).isLarge()) {
+            scrollBar.setSampledSectionIndex(SAMPLE_INTERVAL);
+        }
+        new QuickIndexStrip(this, scrollBar);
     }
 
     @Override
@@ -45,6 +56,9 @@ public class MainActivity extends AppCompatActivity {
             startActivity(i);
             return true;
         }
+        if (DemoData.onMenuItemSelected(this, id)) {
+            return true;
+        }
 
         return super.onOptionsItemSelected(item);
     }
@@ -2,12 +2,13 @@ package com.turingtechnologies.materialscrollbardemo;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.support.v7.app.AppCompatActivity;
-import android.support.v7.widget.LinearLayoutManager;
-import android.support.v7.widget.RecyclerView;
 import android.view.Menu;
 import android.view.MenuItem;
 
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
 import com.turingtechnologies.materialscrollbar.CustomIndicator;
 import com.turingtechnologies.materialscrollbar.MaterialScrollBar;
 
@@ -21,7 +22,10 @@ public class NameActivity extends AppCompatActivity {
         recyclerView.setAdapter(new DemoAdapter(this));
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 //        new MaterialScrollBar(this, recyclerView, false).addIndicator(new DateAndTimeIndicator(this, false, true, true, false));
-        new MaterialScrollBar(this, recyclerView, false).addIndicator(new CustomIndicator(this));
+        //Every label is unique, so a sampled index would have nothing to share between positions.
+        new MaterialScrollBar(this, recyclerView, false)
+                .addIndicator(new CustomIndicator(this).setPrecomputedTextEnabled(true))
+                .setLightweightBindingEnabled(true);
     }
 
     @Override
@@ -45,6 +49,9 @@ public class NameActivity extends AppCompatActivity {
             startActivity(i);
             return true;
         }
+        if (DemoData.onMenuItemSelected(this, id)) {
+            return true;
+        }
 
         return super.onOptionsItemSelected(item);
     }
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ */
+
+package com.turingtechnologies.materialscrollbardemo;
+
+/**
+ * A sorted dataset of any size which stores nothing: each row's label and date are derived from its
+ * position. Labels are five letters followed by the zero-padded position, spread unevenly over the
+ * alphabet so that sections differ in size, and dates are a minute apart, newest first.
+ */
+class SyntheticData extends DemoData {
+
+    private static final int LETTERS = 5;
+    //Number of distinct five letter prefixes.
+    private static final long PREFIXES = 26L * 26 * 26 * 26 * 26;
+    private static final long DATE_STEP_MS = 60 * 1000L;
+
+    private final int size;
+    private final long newest = System.currentTimeMillis();
+
+    SyntheticData(int size) {
+        this.size = size;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    String getLabel(int position) {
+        //Squaring the fraction crowds the early letters, like real names do.
+        double fraction = (double) position / size;
+        long prefix = (long) (fraction * fraction * PREFIXES);
+        char[] label = new char[LETTERS + 9];
+        for (int i = LETTERS - 1; i >= 0; i--) {
+            label[i] = (char) ('a' + prefix % 26);
+            prefix /= 26;
+        }
+        label[0] = Character.toUpperCase(label[0]);
+        label[LETTERS] = ' ';
+        int number = position;
+        for (int i = label.length - 1; i > LETTERS; i--) {
+            label[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return new String(label);
+    }
+
+    @Override
+    long getDate(int position) {
+        return newest - position * DATE_STEP_MS;
+    }
+
+    @Override
+    String getIconPackage(int position) {
+        return null;
+    }
+
+    @Override
+    boolean isLarge() {
+        return true;
+    }
+}
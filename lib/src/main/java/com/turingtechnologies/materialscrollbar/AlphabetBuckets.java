@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.icu.text.AlphabeticIndex;
+import android.os.Build;
+import android.os.LocaleList;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps characters to the alphabet buckets of a locale, so that accented letters share the bucket of
+ * their base letter and scripts such as kana or Cyrillic get the sections a reader of that locale
+ * expects. On API 24+ buckets follow the ICU AlphabeticIndex rules, with the labels of the locale,
+ * the user's other locales and the common scripts of other languages, as the contacts provider
+ * does, so names in a foreign script are not all filed under "#". Digits, punctuation and
+ * symbols, which fall outside every script, share the "#" bucket. Below API 24 there is no
+ * AlphabeticIndex, so each character is its own bucket, upper cased, and digits keep their own.
+ * <p>
+ * Each character is resolved once and its bucket stored in a flat short table, in pages of 256
+ * characters. The pages holding ASCII and the first character of every label of the index are
+ * filled when the table is built, so the characters of the locale's scripts are an array read from
+ * the first lookup on; other pages are filled as their characters are first seen.
+ */
+class AlphabetBuckets {
+
+    //Label of the buckets before, between and after the scripts of the locale, such as digits.
+    private static final String OTHER_LABEL = "#";
+    //Enough for the labels of every locale added below; ICU folds any beyond into overflow buckets.
+    private static final int MAX_LABEL_COUNT = 300;
+    //Scripts other than the user's which still get their own buckets.
+    private static final Locale[] EXTRA_LOCALES = {
+            Locale.ENGLISH, Locale.JAPANESE, Locale.KOREAN, new Locale("th"), new Locale("ar"),
+            new Locale("he"), new Locale("el"), new Locale("uk"), new Locale("sr")
+    };
+
+    final Locale locale;
+    //Bucket + 1 for every character seen so far, 0 for characters not resolved yet.
+    private final short[][] pages = new short[256][];
+    private String[] labels = new String[32];
+    private int labelCount = 0;
+    private final Map<String, Integer> labelIndex = new HashMap<>();
+    private final Object icuIndex;
+
+    AlphabetBuckets(Locale locale) {
+        this.locale = locale;
+        icuIndex = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N ? buildIcuIndex(locale) : null;
+        fillPage(0);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            fillIcuPages();
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.N)
+    private static Object buildIcuIndex(Locale locale) {
+        AlphabeticIndex<String> index = new AlphabeticIndex<String>(locale).setMaxLabelCount(MAX_LABEL_COUNT);
+        LocaleList userLocales = LocaleList.getDefault();
+        for (int i = 0; i < userLocales.size(); i++) {
+            index.addLabels(userLocales.get(i));
+        }
+        return index.addLabels(EXTRA_LOCALES).buildImmutableIndex();
+    }
+
+    @RequiresApi(Build.VERSION_CODES.N)
+    @SuppressWarnings("unchecked")
+    private void fillIcuPages() {
+        AlphabeticIndex.ImmutableIndex<String> index = (AlphabeticIndex.ImmutableIndex<String>) icuIndex;
+        for (int i = 0; i < index.getBucketCount(); i++) {
+            AlphabeticIndex.Bucket<String> bucket = index.getBucket(i);
+            if (bucket.getLabelType() == AlphabeticIndex.Bucket.LabelType.NORMAL && !bucket.getLabel().isEmpty()) {
+                fillPage(bucket.getLabel().charAt(0) >>> 8);
+            }
+        }
+    }
+
+    /**
+     * Resolves every character of a page which has not been filled yet.
+     */
+    private void fillPage(int page) {
+        if (pages[page] != null) {
+            return;
+        }
+        for (int c = page << 8; c < (page + 1) << 8; c++) {
+            getLabel((char) c);
+        }
+    }
+
+    /**
+     * @return The label of the bucket holding the character.
+     */
+    String getLabel(char c) {
+        short[] page = pages[c >>> 8];
+        if (page == null) {
+            page = new short[256];
+            pages[c >>> 8] = page;
+        }
+        int bucket = page[c & 0xFF];
+        if (bucket == 0) {
+            bucket = bucketFor(resolveLabel(c)) + 1;
+            page[c & 0xFF] = (short) bucket;
+        }
+        return labels[bucket - 1];
+    }
+
+    private String resolveLabel(char c) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return resolveIcuLabel(c);
+        }
+        return String.valueOf(c).toUpperCase(locale);
+    }
+
+    @RequiresApi(Build.VERSION_CODES.N)
+    @SuppressWarnings("unchecked")
+    private String resolveIcuLabel(char c) {
+        AlphabeticIndex.ImmutableIndex<String> index = (AlphabeticIndex.ImmutableIndex<String>) icuIndex;
+        AlphabeticIndex.Bucket<String> bucket = index.getBucket(index.getBucketIndex(String.valueOf(c)));
+        if (bucket.getLabelType() != AlphabeticIndex.Bucket.LabelType.NORMAL) {
+            return OTHER_LABEL;
+        }
+        return bucket.getLabel();
+    }
+
+    private int bucketFor(String label) {
+        Integer bucket = labelIndex.get(label);
+        if (bucket == null) {
+            if (labelCount == labels.length) {
+                labels = Arrays.copyOf(labels, labelCount * 2);
+            }
+            bucket = labelCount;
+            labels[labelCount++] = label;
+            labelIndex.put(label, bucket);
+        }
+        return bucket;
+    }
+}
@@ -18,29 +18,62 @@ package com.turingtechnologies.materialscrollbar;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
-import android.text.TextUtils;
 
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.Locale;
 
 /**
- * Indicator which should be used when only one character will be displayed at a time.
+ * Indicator which should be used when only one character will be displayed at a time. Characters
+ * are grouped into the alphabet buckets of the default locale, so accented letters fall under their
+ * base letter, and digits and symbols are shown as "#". Below API 24 each character is shown upper
+ * cased instead, digits included.
  */
 @SuppressLint("ViewConstructor")
 public class AlphabetIndicator extends Indicator {
 
+    //Reused by getSectionLabels.
+    private char[] characters;
+    private AlphabetBuckets buckets;
+
     public AlphabetIndicator(Context c) {
         super(c);
     }
 
     @Override
     String getTextElement(Integer currentSection, RecyclerView.Adapter adapter) {
-        String character = ((INameableAdapter) adapter).getCharacterForElement(currentSection).toString();
-        if (TextUtils.isEmpty(character)) {
+        Character character = ((INameableAdapter) adapter).getCharacterForElement(currentSection);
+        if (character == null) {
             return null;
         }
-        return character.toUpperCase(Locale.getDefault());
+        return getBuckets().getLabel(character);
+    }
+
+    /**
+     * @return The buckets of the default locale, rebuilt if the locale changed since last time.
+     */
+    private AlphabetBuckets getBuckets() {
+        Locale locale = Locale.getDefault();
+        if (buckets == null || !buckets.locale.equals(locale)) {
+            buckets = new AlphabetBuckets(locale);
+        }
+        return buckets;
+    }
+
+    @Override
+    void getSectionLabels(int start, int count, RecyclerView.Adapter<?> adapter, String[] out) {
+        if (!(adapter instanceof IBulkNameableAdapter)) {
+            super.getSectionLabels(start, count, adapter, out);
+            return;
+        }
+        if (characters == null || characters.length < count) {
+            characters = new char[count];
+        }
+        ((IBulkNameableAdapter) adapter).getCharactersForElements(start, count, characters);
+        AlphabetBuckets buckets = getBuckets();
+        for (int i = 0; i < count; i++) {
+            out[i] = buckets.getLabel(characters[i]);
+        }
     }
 
     @Override
@@ -54,10 +87,8 @@ public class AlphabetIndicator extends Indicator {
     }
 
     @Override
-    void testAdapter(RecyclerView.Adapter adapter) {
-        if (!(adapter instanceof INameableAdapter)) {
-            throw new adapterNotSetupForIndicatorException("INameableAdapter");
-        }
+    Class<?> getRequiredInterface() {
+        return INameableAdapter.class;
     }
 
     @Override
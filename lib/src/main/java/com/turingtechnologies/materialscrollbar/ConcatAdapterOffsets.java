@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * Resolves a global ConcatAdapter position to the sub-adapter holding it and the position within
+ * that sub-adapter. The first global position of every sub-adapter is cached and searched with a
+ * binary search. Every sub-adapter is observed so the table is rebuilt only after a change, and the
+ * ConcatAdapter itself is observed to pick up sub-adapters being added or removed.
+ */
+class ConcatAdapterOffsets {
+
+    final ConcatAdapter adapter;
+
+    private RecyclerView.Adapter<? extends RecyclerView.ViewHolder>[] adapters;
+    private int[] starts;
+    private int totalCount;
+    private boolean dirty = true;
+
+    /**
+     * Sub-adapter found by the last successful call to {@link #resolve(int)}.
+     */
+    RecyclerView.Adapter<? extends RecyclerView.ViewHolder> resolvedAdapter;
+    /**
+     * Position within {@link #resolvedAdapter} found by the last successful call to {@link #resolve(int)}.
+     */
+    int resolvedPosition;
+
+    private final RecyclerView.AdapterDataObserver invalidator = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            dirty = true;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            //Counts are unchanged, the offsets stay valid.
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            dirty = true;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            dirty = true;
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            //Moves within a sub-adapter keep its size.
+        }
+    };
+
+    private final RecyclerView.AdapterDataObserver structureObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            rebuildObservers();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            rebuildObservers();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            rebuildObservers();
+        }
+    };
+
+    ConcatAdapterOffsets(ConcatAdapter adapter) {
+        this.adapter = adapter;
+        adapter.registerAdapterDataObserver(structureObserver);
+        rebuildObservers();
+    }
+
+    void release() {
+        adapter.unregisterAdapterDataObserver(structureObserver);
+        unregisterSubAdapters();
+    }
+
+    /**
+     * Finds the sub-adapter holding a global position and stores it in {@link #resolvedAdapter} and
+     * {@link #resolvedPosition}.
+     *
+     * @param position Global position in the ConcatAdapter.
+     * @return False if the position is outside of the adapter.
+     */
+    boolean resolve(int position) {
+        if (dirty) {
+            rebuildOffsets();
+        }
+        if (position < 0 || position >= totalCount) {
+            return false;
+        }
+        int low = 0;
+        int high = starts.length - 1;
+        //Find the last sub-adapter starting at or before the position; empty ones share a start
+        //with their successor and are skipped because the search keeps moving right on ties.
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        resolvedAdapter = adapters[low];
+        resolvedPosition = position - starts[low];
+        return true;
+    }
+
+    /**
+     * @param subAdapter One of the sub-adapters of the ConcatAdapter.
+     * @return The global position of the first element of the sub-adapter, or -1 if it is not part
+     * of the ConcatAdapter.
+     */
+    int getStart(RecyclerView.Adapter<?> subAdapter) {
+        if (dirty) {
+            rebuildOffsets();
+        }
+        for (int i = 0; i < adapters.length; i++) {
+            if (adapters[i] == subAdapter) {
+                return starts[i];
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildObservers() {
+        dirty = true;
+        List<? extends RecyclerView.Adapter<? extends RecyclerView.ViewHolder>> list = adapter.getAdapters();
+        if (adapters != null && adapters.length == list.size()) {
+            boolean same = true;
+            for (int i = 0; i < adapters.length && same; i++) {
+                same = adapters[i] == list.get(i);
+            }
+            if (same) {
+                return;
+            }
+        }
+        unregisterSubAdapters();
+        adapters = list.toArray(new RecyclerView.Adapter[0]);
+        for (RecyclerView.Adapter<?> subAdapter : adapters) {
+            subAdapter.registerAdapterDataObserver(invalidator);
+        }
+    }
+
+    private void unregisterSubAdapters() {
+        if (adapters == null) {
+            return;
+        }
+        for (RecyclerView.Adapter<?> subAdapter : adapters) {
+            subAdapter.unregisterAdapterDataObserver(invalidator);
+        }
+    }
+
+    private void rebuildOffsets() {
+        if (starts == null || starts.length != adapters.length) {
+            starts = new int[adapters.length];
+        }
+        int offset = 0;
+        for (int i = 0; i < adapters.length; i++) {
+            starts[i] = offset;
+            offset += adapters[i].getItemCount();
+        }
+        totalCount = offset;
+        dirty = false;
+    }
+}
@@ -3,9 +3,22 @@ package com.turingtechnologies.materialscrollbar;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.LruCache;
 
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Indicator which should be used in all other cases.
  */
@@ -13,26 +26,170 @@ import androidx.recyclerview.widget.RecyclerView;
 public class CustomIndicator extends Indicator {
 
     private int textSize = 25;
-    private Context context;
+    //Reused to measure every label.
+    private final Paint paint = new Paint();
+
+    //Labels waiting to be laid out. Beyond this the oldest are dropped, a fast drag has left them behind.
+    private static final int MAX_QUEUED_LABELS = 8;
+
+    //Shared by every indicator; shaping is slow enough that one thread keeps up with any drag.
+    private static ExecutorService precomputeExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private LruCache<String, PrecomputedTextCompat> precomputed;
+    //Labels submitted for precomputation and not yet cached. Only touched on the main thread.
+    private final Set<String> pending = new HashSet<>();
+    private PrecomputedTextCompat.Params params;
 
     public CustomIndicator(Context context){
         super(context);
-        this.context = context;
     }
 
     @Override
     String getTextElement(Integer currentSection, RecyclerView.Adapter adapter) {
-        String text = ((ICustomAdapter)adapter).getCustomStringForElement(currentSection);
+        return ((ICustomAdapter)adapter).getCustomStringForElement(currentSection);
+    }
+
+    /**
+     * Widens or narrows the indicator to fit the label.
+     */
+    private void fitWidth(String text) {
         LayoutParams layoutParams = (LayoutParams) getLayoutParams();
-        Paint paint = new Paint();
         paint.setTextSize(textSize);
-        int width = Utils.getDP((int) paint.measureText(text), context) + Utils.getDP(30, context);
-        if(width < Utils.getDP(75, context)){
-            width = Utils.getDP(75, context);
+        int width = geometry.px((int) paint.measureText(text)) + geometry.indicatorPadding;
+        if(width < geometry.indicatorMinWidth){
+            width = geometry.indicatorMinWidth;
+        }
+        if(layoutParams.width != width){
+            layoutParams.width = width;
+            setLayoutParams(layoutParams);
+        }
+    }
+
+    /**
+     * Lays out labels the indicator expects to show next, such as those of the neighbouring sections,
+     * on a background thread. A label which is ready when it is shown is applied without shaping its
+     * text on the main thread. Worthwhile for long labels or scripts which are expensive to shape.
+     *
+     * @param enabled whether labels should be precomputed.
+     */
+    public CustomIndicator setPrecomputedTextEnabled(boolean enabled) {
+        if (enabled && precomputed == null) {
+            precomputed = new LruCache<>(64);
+        } else if (!enabled) {
+            precomputed = null;
+            pending.clear();
+        }
+        return this;
+    }
+
+    boolean isPrecomputedTextEnabled() {
+        return precomputed != null;
+    }
+
+    /**
+     * Starts laying out a label on the background thread unless it is ready or already under way.
+     */
+    void precompute(String label) {
+        final LruCache<String, PrecomputedTextCompat> cache = precomputed;
+        if (cache == null || label == null || textView == null || cache.get(label) != null || !pending.add(label)) {
+            return;
+        }
+        if (params == null) {
+            params = TextViewCompat.getTextMetricsParams(textView);
+        }
+        getPrecomputeExecutor().execute(new Precompute(label, cache, params));
+    }
+
+    private final class Precompute implements Runnable {
+
+        final String label;
+        final LruCache<String, PrecomputedTextCompat> cache;
+        final PrecomputedTextCompat.Params textParams;
+
+        Precompute(String label, LruCache<String, PrecomputedTextCompat> cache, PrecomputedTextCompat.Params textParams) {
+            this.label = label;
+            this.cache = cache;
+            this.textParams = textParams;
+        }
+
+        @Override
+        public void run() {
+            final PrecomputedTextCompat text = PrecomputedTextCompat.create(label, textParams);
+            mainHandler.post(() -> {
+                pending.remove(label);
+                //Dropped if precomputation was disabled or the text size changed meanwhile.
+                if (cache == precomputed && textParams == params) {
+                    cache.put(label, text);
+                }
+            });
+        }
+
+        /**
+         * Called instead of run when the request was dropped from the queue, so it may be made again.
+         */
+        void drop() {
+            mainHandler.post(() -> pending.remove(label));
+        }
+    }
+
+    @Override
+    void setLabel(String label) {
+        if (label != null) {
+            fitWidth(label);
+        }
+        PrecomputedTextCompat text = precomputed == null || label == null ? null : precomputed.get(label);
+        if (text != null && text.getParams() == params) {
+            TextViewCompat.setPrecomputedText(textView, text);
+        } else {
+            super.setLabel(label);
+        }
+    }
+
+    @Override
+    void applyGeometry(Geometry geometry) {
+        super.applyGeometry(geometry);
+        forgetPrecomputedText();
+    }
+
+    private void forgetPrecomputedText() {
+        params = null;
+        if (precomputed != null) {
+            precomputed.evictAll();
+        }
+    }
+
+    private static synchronized ExecutorService getPrecomputeExecutor() {
+        if (precomputeExecutor == null) {
+            precomputeExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_LABELS), runnable -> {
+                Thread thread = new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "Indicator Text Precompute");
+                thread.setDaemon(true);
+                return thread;
+            }, (runnable, executor) -> {
+                Runnable stale = executor.getQueue().poll();
+                if (stale instanceof Precompute) {
+                    ((Precompute) stale).drop();
+                }
+                executor.execute(runnable);
+            });
+        }
+        return precomputeExecutor;
+    }
+
+    @Override
+    String getSectionLabel(int position, RecyclerView.Adapter<?> adapter) {
+        return ((ICustomAdapter) adapter).getCustomStringForElement(position);
+    }
+
+    @Override
+    void getSectionLabels(int start, int count, RecyclerView.Adapter<?> adapter, String[] out) {
+        if (adapter instanceof IBulkCustomAdapter) {
+            ((IBulkCustomAdapter) adapter).getCustomStringsForElements(start, count, out);
+        } else {
+            super.getSectionLabels(start, count, adapter, out);
         }
-        layoutParams.width = width;
-        setLayoutParams(layoutParams);
-        return text;
     }
 
     @Override
@@ -46,10 +203,8 @@ public class CustomIndicator extends Indicator {
     }
 
     @Override
-    void testAdapter(RecyclerView.Adapter adapter) {
-        if(!(adapter instanceof ICustomAdapter)){
-            throw new adapterNotSetupForIndicatorException("ICustomAdapter");
-        }
+    Class<?> getRequiredInterface() {
+        return ICustomAdapter.class;
     }
 
     @Override
@@ -59,6 +214,7 @@ public class CustomIndicator extends Indicator {
 
     public CustomIndicator setTextSize(int textSize){
         this.textSize = textSize;
+        forgetPrecomputedText();
         return this;
     }
 
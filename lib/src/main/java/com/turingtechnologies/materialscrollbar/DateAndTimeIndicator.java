@@ -2,11 +2,16 @@ package com.turingtechnologies.materialscrollbar;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.format.DateFormat;
+import android.util.LongSparseArray;
 
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.text.DateFormatSymbols;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -16,6 +21,11 @@ import java.util.Date;
 @SuppressLint("ViewConstructor")
 public class DateAndTimeIndicator extends Indicator {
 
+    //Sub-adapters of a ConcatAdapter indexed at once; the least recently indexed is dropped beyond.
+    private static final int MAX_BUCKET_INDEXES = 8;
+    //Time the bucket indexes may take from each loop while they are built ahead of use.
+    private static final long BUILD_SLICE_NANOS = 4000000;
+
     private String[] months = new DateFormatSymbols().getMonths();
 
     private Boolean includeYear;
@@ -23,6 +33,16 @@ public class DateAndTimeIndicator extends Indicator {
     private Boolean includeDay;
     private Boolean includeTime;
     private Context context;
+    private final Calendar calendar = Calendar.getInstance();
+    private boolean bucketIndexEnabled = false;
+    //One index per adapter providing dates, the most recently used last.
+    private final ArrayList<DateBucketIndex> bucketIndexes = new ArrayList<>();
+    private MaterialScrollBar scrollBar;
+    private LongSparseArray<String> bucketLabels;
+    //Reused by getSectionLabels.
+    private long[] times;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable mBuildSlice = this::buildSlice;
 
     public DateAndTimeIndicator(Context c, boolean includeYear, boolean includeMonth, boolean includeDay, boolean includeTime){
         super(c);
@@ -33,21 +53,238 @@ public class DateAndTimeIndicator extends Indicator {
         this.includeTime = includeTime;
     }
 
+    /**
+     * Groups elements into month or day buckets, day buckets if the day is shown. Labels are then
+     * looked up by binary search and formatted once per bucket, without asking the adapter for a
+     * date. Elements must be sorted by date and the time must not be shown. The index is built as
+     * soon as the indicator is linked to a bar, a slice of the dates per loop so that the first
+     * frame does not wait for it. Building visits every element once, afterwards only elements
+     * inserted at the head of the adapter are visited.
+     *
+     * @param enabled whether dates should be looked up through a bucket index.
+     */
+    public DateAndTimeIndicator setBucketIndexEnabled(boolean enabled) {
+        bucketIndexEnabled = enabled;
+        if (!enabled) {
+            releaseBucketIndexes();
+            bucketLabels = null;
+        } else {
+            scheduleBuild();
+        }
+        return this;
+    }
+
+    /**
+     * Requires the bucket index to be enabled, and completes it if it is still being built. With a
+     * ConcatAdapter the first sub-adapter providing dates is searched, see
+     * {@link #getPositionForDate(Date, RecyclerView.Adapter)} for the others.
+     *
+     * @param date to look for.
+     * @return The position in the adapter of the list, a ConcatAdapter included, of the first
+     * element of the bucket holding the date, or of the next bucket if none does, or -1 if there is
+     * no index.
+     */
+    public int getPositionForDate(Date date) {
+        RecyclerView.Adapter<?> adapter = scrollBar == null ? null : scrollBar.getRecyclerView().getAdapter();
+        if (adapter instanceof ConcatAdapter) {
+            for (RecyclerView.Adapter<?> subAdapter : ((ConcatAdapter) adapter).getAdapters()) {
+                if (subAdapter instanceof IDateableAdapter) {
+                    return getPositionForDate(date, subAdapter);
+                }
+            }
+            return -1;
+        }
+        return getPositionForDate(date, adapter);
+    }
+
+    /**
+     * Requires the bucket index to be enabled, and builds it for the adapter if needed.
+     *
+     * @param date to look for.
+     * @param adapter The adapter, or sub-adapter of a ConcatAdapter, providing the dates.
+     * @return The position in the adapter of the list, a ConcatAdapter included, of the first
+     * element of the bucket holding the date, or of the next bucket if none does, or -1 if there is
+     * no index or the adapter is not part of the list.
+     */
+    public int getPositionForDate(Date date, RecyclerView.Adapter<?> adapter) {
+        DateBucketIndex index = getBucketIndex(adapter);
+        int position = index == null ? -1 : index.getPositionForDate(date.getTime());
+        if (position < 0 || scrollBar == null) {
+            return position;
+        }
+        return scrollBar.getGlobalPosition(adapter, position);
+    }
+
+    @Override
+    void linkToScrollBar(MaterialScrollBar materialScrollBar) {
+        super.linkToScrollBar(materialScrollBar);
+        scrollBar = materialScrollBar;
+        scheduleBuild();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        handler.removeCallbacks(mBuildSlice);
+        //The indexes observe their adapters, which may outlive this view.
+        releaseBucketIndexes();
+    }
+
+    private void scheduleBuild() {
+        if (bucketIndexEnabled && scrollBar != null) {
+            handler.removeCallbacks(mBuildSlice);
+            handler.post(mBuildSlice);
+        }
+    }
+
+    /**
+     * Builds the bucket indexes of the adapters of the list for a slice of time, through their bulk
+     * date methods where provided, and posts itself again until they are complete.
+     */
+    private void buildSlice() {
+        RecyclerView.Adapter<?> adapter = scrollBar.getRecyclerView().getAdapter();
+        long deadline = System.nanoTime() + BUILD_SLICE_NANOS;
+        boolean complete = true;
+        if (adapter instanceof ConcatAdapter) {
+            int indexed = 0;
+            for (RecyclerView.Adapter<?> subAdapter : ((ConcatAdapter) adapter).getAdapters()) {
+                DateBucketIndex index = indexed < MAX_BUCKET_INDEXES ? getBucketIndex(subAdapter) : null;
+                if (index != null) {
+                    indexed++;
+                    complete = index.build(deadline);
+                    if (!complete) {
+                        break;
+                    }
+                }
+            }
+        } else {
+            DateBucketIndex index = getBucketIndex(adapter);
+            complete = index == null || index.build(deadline);
+        }
+        if (!complete) {
+            handler.post(mBuildSlice);
+        }
+    }
+
     @Override
     String getTextElement(Integer currentSection, RecyclerView.Adapter adapter) {
+        if (!includeTime) {
+            String label = getBucketLabel(currentSection, adapter);
+            if (label != null) {
+                return label;
+            }
+        }
         Date date = ((IDateableAdapter) adapter).getDateForElement(currentSection);
-        Calendar calendar = Calendar.getInstance();
         calendar.setTime(date);
         String text = "";
         if(includeTime){
             text += DateFormat.getTimeFormat(context).format(date);
         }
+        return (text + format(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH))).trim();
+    }
+
+    @Override
+    String getSectionLabel(int position, RecyclerView.Adapter<?> adapter) {
+        //Sections never split on time, otherwise every element would be a section of its own.
+        String label = getBucketLabel(position, adapter);
+        if (label != null) {
+            return label;
+        }
+        calendar.setTime(((IDateableAdapter) adapter).getDateForElement(position));
+        return format(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).trim();
+    }
+
+    @Override
+    void getSectionLabels(int start, int count, RecyclerView.Adapter<?> adapter, String[] out) {
+        //The bucket index already reads dates in bulk and answers each position with a search.
+        if (bucketIndexEnabled || !(adapter instanceof IBulkDateableAdapter)) {
+            super.getSectionLabels(start, count, adapter, out);
+            return;
+        }
+        if (times == null || times.length < count) {
+            times = new long[count];
+        }
+        ((IBulkDateableAdapter) adapter).getDatesForElements(start, count, times);
+        for (int i = 0; i < count; i++) {
+            calendar.setTimeInMillis(times[i]);
+            out[i] = format(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).trim();
+        }
+    }
+
+    /**
+     * @return The cached label of the bucket holding the position, or null if the bucket index is
+     * disabled.
+     */
+    private String getBucketLabel(int position, RecyclerView.Adapter<?> adapter) {
+        DateBucketIndex bucketIndex = getBucketIndex(adapter);
+        if (bucketIndex == null) {
+            return null;
+        }
+        int bucket = bucketIndex.getBucketForPosition(position);
+        if (bucket >= bucketIndex.getBucketCount()) {
+            return null;
+        }
+        long key = bucketIndex.getBucketKey(bucket);
+        if (bucketLabels == null) {
+            bucketLabels = new LongSparseArray<>();
+        }
+        String label = bucketLabels.get(key);
+        if (label == null) {
+            int day = 1;
+            if (bucketIndex.isByDay()) {
+                day = (int) (key % 100);
+                key /= 100;
+            }
+            label = format((int) (key / 100), (int) (key % 100), day).trim();
+            bucketLabels.put(bucketIndex.getBucketKey(bucket), label);
+        }
+        return label;
+    }
+
+    /**
+     * Each sub-adapter of a ConcatAdapter keeps its own index, so moving between them does not
+     * cause a rebuild.
+     *
+     * @return The bucket index of the adapter, or null if the bucket index is disabled or the adapter
+     * provides no dates.
+     */
+    private DateBucketIndex getBucketIndex(RecyclerView.Adapter<?> adapter) {
+        if (!bucketIndexEnabled || !(adapter instanceof IDateableAdapter)) {
+            return null;
+        }
+        int last = bucketIndexes.size() - 1;
+        for (int i = last; i >= 0; i--) {
+            DateBucketIndex index = bucketIndexes.get(i);
+            if (index.adapter == adapter) {
+                if (i != last) {
+                    bucketIndexes.remove(i);
+                    bucketIndexes.add(index);
+                }
+                return index;
+            }
+        }
+        if (bucketIndexes.size() == MAX_BUCKET_INDEXES) {
+            bucketIndexes.remove(0).release();
+        }
+        DateBucketIndex index = new DateBucketIndex(adapter, includeDay);
+        bucketIndexes.add(index);
+        return index;
+    }
+
+    private void releaseBucketIndexes() {
+        for (DateBucketIndex index : bucketIndexes) {
+            index.release();
+        }
+        bucketIndexes.clear();
+    }
+
+    private String format(int year, int month, int day) {
+        String text = "";
         if(includeMonth){
-            text += " " + months[calendar.get(Calendar.MONTH)].substring(0, 3);
+            text += " " + months[month].substring(0, 3);
         }
         if(includeDay){
-            int day = calendar.get(Calendar.DAY_OF_MONTH);
-            if(String.valueOf(day).length() == 1){
+            if(day < 10){
                 text += " 0" + day;
             } else {
                 text += " " + day;
@@ -57,9 +294,20 @@ public class DateAndTimeIndicator extends Indicator {
             if(includeDay){
                 text += ",";
             }
-            text += " " + calendar.get(Calendar.YEAR);
+            text += " " + year;
         }
-        return text.trim();
+        return text;
+    }
+
+    @Override
+    String getSectionCacheKey() {
+        //Section labels never include the time.
+        return super.getSectionCacheKey() + (includeYear ? "Y" : "") + (includeMonth ? "M" : "") + (includeDay ? "D" : "");
+    }
+
+    @Override
+    boolean isTextSectionLabel() {
+        return !includeTime;
     }
 
     @Override
@@ -93,10 +341,8 @@ public class DateAndTimeIndicator extends Indicator {
     }
 
     @Override
-    void testAdapter(RecyclerView.Adapter adapter) {
-        if(!(adapter instanceof IDateableAdapter)){
-            throw new adapterNotSetupForIndicatorException("IDateableAdapter");
-        }
+    Class<?> getRequiredInterface() {
+        return IDateableAdapter.class;
     }
 
     @Override
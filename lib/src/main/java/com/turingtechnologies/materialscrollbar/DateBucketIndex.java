@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * Groups the elements of a date-sorted IDateableAdapter into month or day buckets. The first
+ * position of each bucket is kept in an int array and its key (year, zero-based month and optionally
+ * day as yyyymm or yyyymmdd) in a long array,
+ * so both position-to-bucket and date-to-position lookups are binary searches. Elements inserted at
+ * the head of the adapter, as new photos are in a timeline, are indexed without a rebuild; any
+ * other change causes a rebuild on the next lookup. A build can be spread over several loops with
+ * {@link #build(long)}, and a lookup completes whatever is left of it.
+ */
+class DateBucketIndex extends RecyclerView.AdapterDataObserver {
+
+    @SuppressWarnings("rawtypes")
+    final RecyclerView.Adapter adapter;
+    private final IDateableAdapter dates;
+    private final boolean byDay;
+    private final Calendar calendar = Calendar.getInstance();
+    //Dates are read in batches of this many elements.
+    private final long[] times = new long[256];
+
+    private int[] starts = new int[0];
+    private long[] keys = new long[0];
+    private int count = 0;
+    private boolean stale = true;
+    //Elements indexed so far by an unfinished build, and the key of the last of them.
+    private int builtItems = 0;
+    private long lastKey = Long.MIN_VALUE;
+
+    @SuppressWarnings("rawtypes")
+    DateBucketIndex(RecyclerView.Adapter adapter, boolean byDay) {
+        this.adapter = adapter;
+        this.dates = (IDateableAdapter) adapter;
+        this.byDay = byDay;
+        adapter.registerAdapterDataObserver(this);
+    }
+
+    void release() {
+        adapter.unregisterAdapterDataObserver(this);
+    }
+
+    int getBucketCount() {
+        ensureBuilt();
+        return count;
+    }
+
+    long getBucketKey(int bucket) {
+        return keys[bucket];
+    }
+
+    int getBucketStart(int bucket) {
+        return starts[bucket];
+    }
+
+    /**
+     * @return True if keys include the day (yyyymmdd), false if they stop at the month (yyyymm).
+     */
+    boolean isByDay() {
+        return byDay;
+    }
+
+    /**
+     * @return The bucket containing the position.
+     */
+    int getBucketForPosition(int position) {
+        ensureBuilt();
+        int bucket = Arrays.binarySearch(starts, 0, count, position);
+        return Math.max(0, bucket >= 0 ? bucket : -bucket - 2);
+    }
+
+    /**
+     * @param timeMillis A date in milliseconds since the epoch.
+     * @return The first position of the bucket holding the date, or of the bucket which would
+     * follow it in the adapter's order if there is none, or -1 if the adapter is empty.
+     */
+    int getPositionForDate(long timeMillis) {
+        ensureBuilt();
+        if (count == 0) {
+            return -1;
+        }
+        long key = keyOf(timeMillis);
+        boolean descending = keys[0] > keys[count - 1];
+        int low = 0;
+        int high = count;
+        //Lower bound in the adapter's own order.
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (descending ? keys[mid] > key : keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == count ? adapter.getItemCount() - 1 : starts[low];
+    }
+
+    long keyOf(long timeMillis) {
+        calendar.setTimeInMillis(timeMillis);
+        long key = calendar.get(Calendar.YEAR) * 100L + calendar.get(Calendar.MONTH);
+        if (byDay) {
+            key = key * 100 + calendar.get(Calendar.DAY_OF_MONTH);
+        }
+        return key;
+    }
+
+    private void ensureBuilt() {
+        build(Long.MAX_VALUE);
+    }
+
+    /**
+     * Indexes the elements a batch at a time from where the last call stopped, until every element
+     * is indexed or the deadline has passed.
+     *
+     * @param deadline {@link System#nanoTime()} after which no further batch is read.
+     * @return True once the index is complete.
+     */
+    boolean build(long deadline) {
+        if (!stale) {
+            return true;
+        }
+        int itemCount = adapter.getItemCount();
+        while (builtItems < itemCount) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            int start = builtItems;
+            int batch = Math.min(times.length, itemCount - start);
+            readDates(start, batch);
+            for (int i = 0; i < batch; i++) {
+                long key = keyOf(times[i]);
+                if (key != lastKey) {
+                    append(start + i, key);
+                    lastKey = key;
+                }
+            }
+            builtItems += batch;
+        }
+        stale = false;
+        return true;
+    }
+
+    private void invalidate() {
+        stale = true;
+        count = 0;
+        builtItems = 0;
+        lastKey = Long.MIN_VALUE;
+    }
+
+    /**
+     * Reads the dates of a range of elements into times, in a single call if the adapter supports it.
+     */
+    private void readDates(int start, int batch) {
+        if (dates instanceof IBulkDateableAdapter) {
+            ((IBulkDateableAdapter) dates).getDatesForElements(start, batch, times);
+        } else {
+            for (int i = 0; i < batch; i++) {
+                times[i] = dates.getDateForElement(start + i).getTime();
+            }
+        }
+    }
+
+    private void append(int position, long key) {
+        if (count == starts.length) {
+            int size = Math.max(16, count * 2);
+            starts = Arrays.copyOf(starts, size);
+            keys = Arrays.copyOf(keys, size);
+        }
+        starts[count] = position;
+        keys[count] = key;
+        count++;
+    }
+
+    /**
+     * Indexes itemCount new elements at the head of the adapter and shifts the existing buckets.
+     */
+    private void prepend(int itemCount) {
+        int[] newStarts = new int[0];
+        long[] newKeys = new long[0];
+        int newCount = 0;
+        long lastKey = Long.MIN_VALUE;
+        for (int start = 0; start < itemCount; start += times.length) {
+            int batch = Math.min(times.length, itemCount - start);
+            readDates(start, batch);
+            for (int i = 0; i < batch; i++) {
+                long key = keyOf(times[i]);
+                if (key != lastKey) {
+                    if (newCount == newStarts.length) {
+                        newStarts = Arrays.copyOf(newStarts, Math.max(4, newCount * 2));
+                        newKeys = Arrays.copyOf(newKeys, newStarts.length);
+                    }
+                    newStarts[newCount] = start + i;
+                    newKeys[newCount] = key;
+                    newCount++;
+                    lastKey = key;
+                }
+            }
+        }
+        //The old first bucket continues the last new one when they share a key.
+        int skip = count > 0 && newCount > 0 && keys[0] == lastKey ? 1 : 0;
+        int total = newCount + count - skip;
+        int[] mergedStarts = new int[Math.max(16, total)];
+        long[] mergedKeys = new long[mergedStarts.length];
+        System.arraycopy(newStarts, 0, mergedStarts, 0, newCount);
+        System.arraycopy(newKeys, 0, mergedKeys, 0, newCount);
+        for (int i = skip; i < count; i++) {
+            mergedStarts[newCount + i - skip] = starts[i] + itemCount;
+            mergedKeys[newCount + i - skip] = keys[i];
+        }
+        starts = mergedStarts;
+        keys = mergedKeys;
+        count = total;
+    }
+
+    @Override
+    public void onChanged() {
+        invalidate();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        invalidate();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        //Partial rebinds do not change dates.
+        if (payload == null) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        if (positionStart == 0 && !stale) {
+            prepend(itemCount);
+        } else {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        invalidate();
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        invalidate();
+    }
+}
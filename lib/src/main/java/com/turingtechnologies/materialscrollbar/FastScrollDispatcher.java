@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import java.util.Arrays;
+
+/**
+ * Turns the raw touch positions of a fast scroll into throttled events for any number of
+ * {@link IFastScrollListener}s. Listeners are kept in a copy-on-write array so dispatching never
+ * allocates. Throttling and settling each use a single pending runnable which re-arms itself rather
+ * than being removed and re-posted on every touch.
+ */
+class FastScrollDispatcher {
+
+    private static final IFastScrollListener[] NO_LISTENERS = new IFastScrollListener[0];
+    //How long the target must rest before the scroll counts as settled.
+    private static final long SETTLE_DELAY_MS = 150;
+
+    private final Handler handler;
+    private IFastScrollListener[] listeners = NO_LISTENERS;
+    private long throttleMs = 50;
+
+    private boolean active = false;
+    private int position;
+    private int dispatchedPosition;
+    private long dispatchedAt;
+    private int settledPosition;
+    private long movedAt;
+    private int skippedStart;
+    private int skippedEnd;
+    private int landingStart;
+    private int landingEnd;
+    private boolean flushPosted = false;
+    private boolean settlePosted = false;
+
+    private final Runnable flush = this::onFlush;
+    private final Runnable settleCheck = this::onSettleCheck;
+
+    FastScrollDispatcher(Handler handler) {
+        this.handler = handler;
+    }
+
+    void addListener(IFastScrollListener listener) {
+        IFastScrollListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    void removeListener(IFastScrollListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                IFastScrollListener[] updated = new IFastScrollListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+                listeners = updated.length == 0 ? NO_LISTENERS : updated;
+                return;
+            }
+        }
+    }
+
+    void setThrottle(long throttleMs) {
+        this.throttleMs = throttleMs;
+    }
+
+    /**
+     * @return True while the user drags the scroll bar and the target has not come to rest.
+     */
+    boolean isMoving() {
+        return active && settledPosition != position;
+    }
+
+    /**
+     * Reports the position the list is being scrolled to, starting a fast scroll if none is active.
+     *
+     * @param window    number of items visible at once.
+     * @param itemCount number of items in the adapter.
+     */
+    void onMove(int newPosition, int window, int itemCount) {
+        long now = SystemClock.uptimeMillis();
+        if (!active) {
+            active = true;
+            position = newPosition;
+            dispatchedPosition = newPosition;
+            dispatchedAt = now;
+            settledPosition = -1;
+            movedAt = now;
+            predictLanding(newPosition, false, window, itemCount);
+            skippedStart = landingStart;
+            skippedEnd = landingEnd;
+            IFastScrollListener[] current = listeners;
+            for (IFastScrollListener listener : current) {
+                listener.onFastScrollStarted(newPosition);
+            }
+            dispatchPosition(newPosition, now);
+            postSettleCheck(SETTLE_DELAY_MS);
+            return;
+        }
+        if (newPosition == position) {
+            return;
+        }
+        predictLanding(newPosition, newPosition > position, window, itemCount);
+        skippedStart = Math.min(skippedStart, landingStart);
+        skippedEnd = Math.max(skippedEnd, landingEnd);
+        position = newPosition;
+        movedAt = now;
+        if (now - dispatchedAt >= throttleMs) {
+            dispatchPosition(newPosition, now);
+        } else if (!flushPosted) {
+            flushPosted = true;
+            handler.postDelayed(flush, throttleMs - (now - dispatchedAt));
+        }
+        postSettleCheck(SETTLE_DELAY_MS);
+    }
+
+    /**
+     * scrollToPosition brings a later target in at the bottom of the list and an earlier one at the top.
+     */
+    private void predictLanding(int target, boolean forward, int window, int itemCount) {
+        if (forward) {
+            landingStart = Math.max(0, target - window + 1);
+            landingEnd = target;
+        } else {
+            landingStart = target;
+            landingEnd = Math.max(target, Math.min(itemCount - 1, target + window - 1));
+        }
+    }
+
+    /**
+     * Reports that the user let go of the scroll bar.
+     */
+    void onEnd() {
+        if (!active) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (position != dispatchedPosition) {
+            dispatchPosition(position, now);
+        }
+        dispatchSettled();
+        active = false;
+        IFastScrollListener[] current = listeners;
+        for (IFastScrollListener listener : current) {
+            listener.onFastScrollEnded(position);
+        }
+    }
+
+    /**
+     * Ends any fast scroll in progress and drops pending callbacks, for when the bar is detached.
+     */
+    void cancel() {
+        onEnd();
+        handler.removeCallbacks(flush);
+        handler.removeCallbacks(settleCheck);
+        flushPosted = false;
+        settlePosted = false;
+    }
+
+    private void dispatchPosition(int newPosition, long now) {
+        long elapsed = now - dispatchedAt;
+        float itemsPerSecond = elapsed > 0 ? (newPosition - dispatchedPosition) * 1000F / elapsed : 0;
+        dispatchedPosition = newPosition;
+        dispatchedAt = now;
+        IFastScrollListener[] current = listeners;
+        for (IFastScrollListener listener : current) {
+            listener.onFastScrollPositionChanged(newPosition, itemsPerSecond);
+            listener.onFastScrollRangesChanged(skippedStart, skippedEnd, landingStart, landingEnd);
+        }
+    }
+
+    private void dispatchSettled() {
+        if (settledPosition == position) {
+            return;
+        }
+        settledPosition = position;
+        IFastScrollListener[] current = listeners;
+        for (IFastScrollListener listener : current) {
+            listener.onFastScrollSettled(position);
+        }
+    }
+
+    private void onFlush() {
+        flushPosted = false;
+        if (active && position != dispatchedPosition) {
+            dispatchPosition(position, SystemClock.uptimeMillis());
+        }
+    }
+
+    private void postSettleCheck(long delay) {
+        if (!settlePosted) {
+            settlePosted = true;
+            handler.postDelayed(settleCheck, delay);
+        }
+    }
+
+    private void onSettleCheck() {
+        settlePosted = false;
+        if (!active) {
+            return;
+        }
+        long rested = SystemClock.uptimeMillis() - movedAt;
+        if (rested < SETTLE_DELAY_MS) {
+            postSettleCheck(SETTLE_DELAY_MS - rested);
+        } else {
+            if (position != dispatchedPosition) {
+                dispatchPosition(position, SystemClock.uptimeMillis());
+            }
+            dispatchSettled();
+        }
+    }
+}
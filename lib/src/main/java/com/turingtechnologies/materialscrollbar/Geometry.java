@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+/**
+ * The pixel sizes of the bar and its indicator, converted from dp once for a given density. A
+ * snapshot is immutable; changing the track width, the indicator or the density creates a new one,
+ * so scrolling and touches only read fields and never look up resources.
+ */
+final class Geometry {
+
+    private static final int BAR_WIDTH_DP = 20;
+    private static final int HANDLE_HEIGHT_DP = 48;
+    private static final int HIDDEN_OFFSET_DP = 8;
+    private static final int INDICATOR_MARGIN_DP = 8;
+    //The carrot of the indicator points at this height within the handle.
+    private static final int INDICATOR_ANCHOR_DP = 24;
+    private static final int INDICATOR_MIN_WIDTH_DP = 75;
+    private static final int INDICATOR_PADDING_DP = 30;
+    private static final int TICK_LENGTH_DP = 4;
+    private static final int TICK_STROKE_DP = 1;
+    private static final int TICK_TEXT_SIZE_DP = 9;
+    //Added to the width of the bar while section marks are shown, for their labels.
+    private static final int TICK_LABEL_WIDTH_DP = 32;
+
+    final float density;
+    final int trackWidthDp;
+    final int indicatorWidthDp;
+    final int indicatorHeightDp;
+
+    final int barWidth;
+    final int trackWidth;
+    final int handleHeight;
+    final int hiddenOffset;
+    final int indicatorWidth;
+    final int indicatorHeight;
+    final int indicatorMargin;
+    //Added to the handle position so that the carrot extends from the centre of the handle.
+    final int indicatorOffset;
+    final int indicatorMinWidth;
+    final int indicatorPadding;
+    final int tickLength;
+    final int tickStroke;
+    final int tickTextSize;
+    final int tickLabelWidth;
+
+    Geometry(float density, int trackWidthDp, int indicatorWidthDp, int indicatorHeightDp) {
+        this.density = density;
+        this.trackWidthDp = trackWidthDp;
+        this.indicatorWidthDp = indicatorWidthDp;
+        this.indicatorHeightDp = indicatorHeightDp;
+        barWidth = px(BAR_WIDTH_DP);
+        trackWidth = px(trackWidthDp);
+        handleHeight = px(HANDLE_HEIGHT_DP);
+        hiddenOffset = px(HIDDEN_OFFSET_DP);
+        indicatorWidth = px(indicatorWidthDp);
+        indicatorHeight = px(indicatorHeightDp);
+        indicatorMargin = px(INDICATOR_MARGIN_DP);
+        indicatorOffset = px(INDICATOR_ANCHOR_DP - indicatorHeightDp);
+        indicatorMinWidth = px(INDICATOR_MIN_WIDTH_DP);
+        indicatorPadding = px(INDICATOR_PADDING_DP);
+        tickLength = px(TICK_LENGTH_DP);
+        tickStroke = Math.max(1, px(TICK_STROKE_DP));
+        tickTextSize = px(TICK_TEXT_SIZE_DP);
+        tickLabelWidth = px(TICK_LABEL_WIDTH_DP);
+    }
+
+    /**
+     * Converts like {@link Utils#getDP(int, android.content.Context)} without a resource lookup.
+     */
+    int px(int dp) {
+        return (int) (dp * density);
+    }
+
+    Geometry withDensity(float density) {
+        return new Geometry(density, trackWidthDp, indicatorWidthDp, indicatorHeightDp);
+    }
+
+    Geometry withTrackWidth(int trackWidthDp) {
+        return new Geometry(density, trackWidthDp, indicatorWidthDp, indicatorHeightDp);
+    }
+
+    Geometry withIndicator(int indicatorWidthDp, int indicatorHeightDp) {
+        return new Geometry(density, trackWidthDp, indicatorWidthDp, indicatorHeightDp);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+public interface IBulkNameableAdapter extends INameableAdapter {
+
+    /**
+     * Answers a whole range of elements in one call, so that indexing the adapter does not need a
+     * separate lookup per element.
+     *
+     * @param start first element of the range.
+     * @param count number of elements in the range.
+     * @param out   array to fill from index 0 with the character of each element, as
+     *              {@link #getCharacterForElement(int)} would return it.
+     */
+    void getCharactersForElements(int start, int count, char[] out);
+
+}
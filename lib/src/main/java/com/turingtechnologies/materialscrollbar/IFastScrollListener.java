@@ -0,0 +1,55 @@
+package com.turingtechnologies.materialscrollbar;
+
+/**
+ * Receives the events of a fast scroll, that is the user dragging the scroll bar. Every method has
+ * an empty default so only the events of interest need implementing. All events are delivered on
+ * the main thread.
+ */
+public interface IFastScrollListener {
+
+    /**
+     * The user touched the scroll bar.
+     *
+     * @param position the position the recyclerview will be scrolled to.
+     */
+    default void onFastScrollStarted(int position) {}
+
+    /**
+     * The target position changed. Calls are throttled, so intermediate positions may be skipped,
+     * but the last position is always delivered before the scroll settles or ends.
+     *
+     * @param position       the position the recyclerview will be scrolled to.
+     * @param itemsPerSecond how fast the target is moving, negative when moving towards the start.
+     */
+    default void onFastScrollPositionChanged(int position, float itemsPerSecond) {}
+
+    /**
+     * The ranges of a fast scroll changed; delivered together with every position update. Items
+     * between skippedStart and skippedEnd have been passed over by the scroll and may have been bound
+     * briefly; loads started for them can be cancelled, except for those in the landing range, which
+     * is where the list is predicted to come to rest. All bounds are inclusive adapter positions and
+     * the landing range always lies within the skipped range.
+     *
+     * @param skippedStart first position passed over since the fast scroll started.
+     * @param skippedEnd   last position passed over since the fast scroll started.
+     * @param landingStart first position predicted to be visible once the list stops.
+     * @param landingEnd   last position predicted to be visible once the list stops.
+     */
+    default void onFastScrollRangesChanged(int skippedStart, int skippedEnd, int landingStart, int landingEnd) {}
+
+    /**
+     * The target has stopped moving, either because the user holds the handle still or because the
+     * user let go. Called once per resting position; a good moment to start expensive work.
+     *
+     * @param position the position the recyclerview was scrolled to.
+     */
+    default void onFastScrollSettled(int position) {}
+
+    /**
+     * The user let go of the scroll bar.
+     *
+     * @param position the position the recyclerview was scrolled to.
+     */
+    default void onFastScrollEnded(int position) {}
+
+}
@@ -1,9 +1,15 @@
 package com.turingtechnologies.materialscrollbar;
 
+/**
+ * @deprecated Use {@link IFastScrollListener}, which reports the start, settling and end of a fast
+ * scroll explicitly and supports several listeners.
+ */
+@Deprecated
 public interface IOnFastScrolledListener {
 
     /**
-     * @param position the position the recyclerview will be scrolled to.
+     * @param position the position the recyclerview will be scrolled to, or -1000 once the fast
+     *                 scroll ends.
      */
     void onFastScrolledTo(int position);
 
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+public interface ISortedKeyAdapter {
+
+    /**
+     * Elements must be sorted by this key in the order of {@link #compareKeys(String, String)}, which
+     * allows the first element for a key to be found with a binary search.
+     *
+     * @param element of the adapter whose key is wanted.
+     * @return The key by which the element is sorted, such as its name.
+     */
+    String getSortKeyForElement(int element);
+
+    /**
+     * Compares an element's key with a searched key, which may be a prefix such as a single letter.
+     * Ignores case by default.
+     *
+     * @return A negative number if the element's key sorts before the searched key, zero if they are
+     * equal or a positive number otherwise.
+     */
+    default int compareKeys(String elementKey, String key) {
+        return String.CASE_INSENSITIVE_ORDER.compare(elementKey, key);
+    }
+
+}
@@ -24,12 +24,14 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 public abstract class Indicator extends RelativeLayout {
 
     protected TextView textView;
     private final Context context;
+    Geometry geometry;
 
     public Indicator(Context context) {
         super(context);
@@ -37,9 +39,10 @@ public abstract class Indicator extends RelativeLayout {
     }
 
     void linkToScrollBar(MaterialScrollBar materialScrollBar) {
+        geometry = materialScrollBar.geometry;
         setBackground(ContextCompat.getDrawable(context, R.drawable.indicator));
-        RelativeLayout.LayoutParams lp = new RelativeLayout.LayoutParams(Utils.getDP(getIndicatorWidth(), this), Utils.getDP(getIndicatorHeight(), this));
-        lp.setMargins(0, 0, Utils.getDP(8, this), 0);
+        RelativeLayout.LayoutParams lp = new RelativeLayout.LayoutParams(geometry.indicatorWidth, geometry.indicatorHeight);
+        lp.setMargins(0, 0, geometry.indicatorMargin, 0);
         setVisibility(INVISIBLE);
 
         textView = new TextView(context);
@@ -62,10 +65,10 @@ public abstract class Indicator extends RelativeLayout {
      */
     void setScroll(float y) {
         //Displace the indicator upward so that the carrot extends from the centre of the handle.
-        y += Utils.getDP(24 - getIndicatorHeight(), this);
+        y += geometry.indicatorOffset;
         //If the indicator is hidden by the top of the screen, it is inverted and displaced downward.
         if (y < 0) {
-            y += Utils.getDP(getIndicatorHeight(), this);
+            y += geometry.indicatorHeight;
             this.setScaleY(-1F);
             textView.setScaleY(-1F);
         } else {
@@ -75,6 +78,17 @@ public abstract class Indicator extends RelativeLayout {
         this.setY(y);
     }
 
+    /**
+     * Used by the materialScrollBar to resize the indicator after the density changed.
+     */
+    void applyGeometry(Geometry geometry) {
+        this.geometry = geometry;
+        ViewGroup.LayoutParams lp = getLayoutParams();
+        lp.width = geometry.indicatorWidth;
+        lp.height = geometry.indicatorHeight;
+        setLayoutParams(lp);
+    }
+
     /**
      * Used by the materialScrollBar to change the text colour for the indicator.
      *
@@ -84,15 +98,85 @@ public abstract class Indicator extends RelativeLayout {
         textView.setTextColor(colour);
     }
 
+    /**
+     * Used by the materialScrollBar to show a label returned by getTextElement.
+     */
+    void setLabel(String label) {
+        textView.setText(label);
+    }
+
     @SuppressWarnings("rawtypes")
     abstract String getTextElement(Integer currentSection, RecyclerView.Adapter adapter);
 
+    /**
+     * Used to build the section index. Unlike {@link #getTextElement(Integer, RecyclerView.Adapter)}
+     * this must not change the indicator itself, since it is called for every element.
+     *
+     * @return The label of the section to which the element belongs.
+     */
+    String getSectionLabel(int position, RecyclerView.Adapter<?> adapter) {
+        return getTextElement(position, adapter);
+    }
+
+    /**
+     * Fills out with the section labels of a range of elements. Indicators override this to make a
+     * single call when the adapter implements their bulk interface.
+     */
+    void getSectionLabels(int start, int count, RecyclerView.Adapter<?> adapter, String[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = getSectionLabel(start + i, adapter);
+        }
+    }
+
+    /**
+     * Names the section labels this indicator produces in the name of a section index cache file,
+     * so that indicators configured to label sections differently never share a file.
+     */
+    String getSectionCacheKey() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * @return True if the text shown for an element is always the label of its section, so that a
+     * section index can provide the text without asking the adapter.
+     */
+    boolean isTextSectionLabel() {
+        return true;
+    }
+
     abstract int getIndicatorHeight();
 
     abstract int getIndicatorWidth();
 
-    @SuppressWarnings("rawtypes")
-    abstract void testAdapter(RecyclerView.Adapter adapter);
+    /**
+     * @return The interface an adapter must implement to provide text for this indicator.
+     */
+    abstract Class<?> getRequiredInterface();
+
+    /**
+     * @param adapter An adapter, which must not be a ConcatAdapter.
+     * @return True if the adapter can provide text for this indicator.
+     */
+    boolean supportsAdapter(RecyclerView.Adapter<?> adapter) {
+        return getRequiredInterface().isInstance(adapter);
+    }
+
+    /**
+     * Throws if the adapter cannot provide text for this indicator. A ConcatAdapter is accepted as long
+     * as at least one of its sub-adapters can.
+     */
+    void testAdapter(RecyclerView.Adapter<?> adapter) {
+        if (adapter instanceof ConcatAdapter) {
+            for (RecyclerView.Adapter<?> subAdapter : ((ConcatAdapter) adapter).getAdapters()) {
+                if (supportsAdapter(subAdapter)) {
+                    return;
+                }
+            }
+        } else if (supportsAdapter(adapter)) {
+            return;
+        }
+        throw new adapterNotSetupForIndicatorException(getRequiredInterface().getSimpleName());
+    }
 
     abstract int getTextSize();
 
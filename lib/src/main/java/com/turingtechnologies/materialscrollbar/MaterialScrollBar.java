@@ -18,32 +18,56 @@ package com.turingtechnologies.materialscrollbar;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.drawable.GradientDrawable;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 import android.widget.RelativeLayout;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.io.File;
+import java.util.Locale;
+
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 @SuppressLint("ViewConstructor")
 public class MaterialScrollBar extends RelativeLayout {
 
+    /**
+     * Payload of the rebind requested for the visible items once a fast scroll settles, when
+     * lightweight binding is enabled.
+     */
+    public static final Object PAYLOAD_FAST_SCROLL_SETTLED = new Object();
+
+    //Number of section labels asked for at once while building the section index.
+    private static final int SECTION_LABEL_BATCH = 256;
+    //Number of sections on each side of the one shown whose labels are precomputed.
+    private static final int PREFETCH_SECTIONS = 2;
+    //Time the section index for the marks may take from each loop while it is built.
+    private static final long TICKS_BUILD_SLICE_NANOS = 4000000;
+
     private final View background;
     private final View handle;
     int handleColour;
+    //Pixel sizes of the bar and the indicator for the current density.
+    Geometry geometry;
     private int handleOffColour = Color.parseColor("#9c9c9c");
     private boolean hidden;
     private int hideDuration = 2500;
@@ -55,9 +79,102 @@ public class MaterialScrollBar extends RelativeLayout {
     private final boolean lightOnTouch;
     private boolean totallyHidden = false;
     private final Handler mUIHandler = new Handler(Looper.getMainLooper());
-    private IOnFastScrolledListener mFastScrolledListener;
+    private final FastScrollDispatcher fastScrollDispatcher = new FastScrollDispatcher(mUIHandler);
+    private IFastScrollListener legacyFastScrolledListener;
+    private IFastScrollListener rebindOnSettleListener;
+    private final UpdateGovernor governor;
+    private int scrolledPosition = -1;
+    private boolean labelRefreshPosted = false;
+    //Labels asked for during the current scroll, and how many of those were already shown.
+    private int labelRequests = 0;
+    private int labelHits = 0;
+    private boolean framePosted = false;
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private boolean labelFramePosted = false;
+    //Time the last handle update took, added to the cost of the label update which follows it.
+    private long handleCostNanos;
+    private final ScrollListener scrollListener;
+    private RowIndex rowIndex;
+    private ConcatAdapterOffsets concatOffsets;
+    //Adapter and position last found by resolveLabelSource.
+    private RecyclerView.Adapter<?> labelAdapter;
+    private int labelPosition;
+    private SectionTicks sectionTicks;
+    private SectionIndex sectionIndex;
+    private RecyclerView.Adapter<?> indexedAdapter;
+    private boolean sectionIndexStale = true;
+    private boolean ticksRebuildPosted = false;
+    private final String[] sectionLabels = new String[SECTION_LABEL_BATCH];
+    //Incremented whenever the section index goes out of date.
+    private int sectionIndexGeneration = 0;
+    //Section index being built for the marks a slice at a time, with the next position to read.
+    private SectionIndex.Builder ticksBuilder;
+    private int ticksBuildPosition;
+    private int ticksBuildGeneration;
+    private String sectionIndexCacheName;
+    //Label shown, and its position, when neighbours were last prefetched without a section index.
+    private String prefetchedLabel;
+    private int prefetchedPosition;
+    private final String[] prefetchBuffer = new String[1];
+    private int sampleInterval = 0;
+    private SampledSectionIndex sampledIndex;
+    //Uptime at which the bar should hide, or 0 while it should stay visible.
+    private long hideDeadline = 0;
+    //Uptime at which the pending hide check will run, or 0 if none is pending.
+    private long hideCheckAt = 0;
+
+    private final Runnable mFadeBar = this::checkHideDeadline;
+    private final Runnable mRefreshLabel = this::refreshLabel;
+    private final ViewTreeObserver.OnPreDrawListener mFrameListener = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            getViewTreeObserver().removeOnPreDrawListener(this);
+            onFrame();
+            return true;
+        }
+    };
+    private final Choreographer.FrameCallback mLabelFrame = this::onLabelFrame;
+    private final Runnable mRebuildTicks = this::rebuildTicks;
+    private final Runnable mBuildTicksSlice = this::buildTicksSlice;
+    private int settleTarget = RecyclerView.NO_POSITION;
+    private final Runnable mSettle = this::settle;
+    //Whether the current touch started with a jump, which is settled unless the touch moves on.
+    private boolean touchJumped = false;
+
+    private final RecyclerView.AdapterDataObserver sectionObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidateSectionIndex();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            invalidateSectionIndex();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            //Partial rebinds do not change labels.
+            if (payload == null) {
+                invalidateSectionIndex();
+            }
+        }
 
-    private final Runnable mFadeBar = this::fadeOut;
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            invalidateSectionIndex();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            invalidateSectionIndex();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            invalidateSectionIndex();
+        }
+    };
 
     /**
      * For testing only. Should not generally be accessed.
@@ -70,20 +187,141 @@ public class MaterialScrollBar extends RelativeLayout {
      * For testing only. Should not generally be accessed.
      */
     public String getIndicatorText() {
-        return (String) indicator.textView.getText();
+        return indicator.textView.getText().toString();
     }
 
     public View getHandle() {
         return handle;
     }
 
+    RecyclerView getRecyclerView() {
+        return recyclerView;
+    }
+
     /**
      * Provides the ability to set a listener that will be called whenever a fast scroll occurs.
      *
      * @param listener to call when a fast scroll occurs.
+     * @deprecated Use {@link #addFastScrollListener(IFastScrollListener)}. The listener now receives
+     * the same throttled positions, followed by -1000 once when the user lets go.
      */
-    public MaterialScrollBar setOnFastScrolledListener(IOnFastScrolledListener listener) {
-        mFastScrolledListener = listener;
+    @Deprecated
+    public MaterialScrollBar setOnFastScrolledListener(final IOnFastScrolledListener listener) {
+        if (legacyFastScrolledListener != null) {
+            fastScrollDispatcher.removeListener(legacyFastScrolledListener);
+            legacyFastScrolledListener = null;
+        }
+        if (listener != null) {
+            legacyFastScrolledListener = new IFastScrollListener() {
+                @Override
+                public void onFastScrollPositionChanged(int position, float itemsPerSecond) {
+                    listener.onFastScrolledTo(position);
+                }
+
+                @Override
+                public void onFastScrollEnded(int position) {
+                    listener.onFastScrolledTo(-1000);
+                }
+            };
+            fastScrollDispatcher.addListener(legacyFastScrolledListener);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a listener for the start, throttled position updates, settling and end of fast scrolls.
+     *
+     * @param listener to call when a fast scroll occurs.
+     */
+    public MaterialScrollBar addFastScrollListener(IFastScrollListener listener) {
+        fastScrollDispatcher.addListener(listener);
+        return this;
+    }
+
+    /**
+     * Removes a listener added with {@link #addFastScrollListener(IFastScrollListener)}.
+     */
+    public MaterialScrollBar removeFastScrollListener(IFastScrollListener listener) {
+        fastScrollDispatcher.removeListener(listener);
+        return this;
+    }
+
+    /**
+     * Cheap enough to be called from onBindViewHolder, so that adapters can bind a lightweight
+     * placeholder, without images or heavy text, for rows which are only on screen for a frame.
+     *
+     * @return True while the user drags the scroll bar and the list has not come to rest.
+     */
+    public boolean isFastScrolling() {
+        return fastScrollDispatcher.isMoving();
+    }
+
+    /**
+     * See {@link #isFastScrolling()}.
+     *
+     * @param recyclerView A recyclerView which may have a scroll bar.
+     * @return True if the recyclerView has a scroll bar which is being fast scrolled.
+     */
+    public static boolean isFastScrolling(RecyclerView recyclerView) {
+        Object scrollBar = recyclerView.getTag(R.id.materialScrollBarTag);
+        return scrollBar instanceof MaterialScrollBar && ((MaterialScrollBar) scrollBar).isFastScrolling();
+    }
+
+    /**
+     * Adds named sections for scrolling, touches, label computation and fades to system traces, along
+     * with counters for the fast scroll target and the share of labels which did not need computing
+     * (API 29+). Applies to every scroll bar. Disabled by default, in which case it costs nothing.
+     *
+     * @param enabled whether the bar's work should appear in system traces.
+     */
+    public static void setTracingEnabled(boolean enabled) {
+        ScrollTrace.enabled = enabled;
+    }
+
+    /**
+     * For adapters which bind placeholders while {@link #isFastScrolling()} is true. Once a fast
+     * scroll settles, the visible items, and only those, are rebound with the payload
+     * {@link #PAYLOAD_FAST_SCROLL_SETTLED}.
+     *
+     * @param enabled whether the visible items should be rebound when a fast scroll settles.
+     */
+    public MaterialScrollBar setLightweightBindingEnabled(boolean enabled) {
+        if (enabled && rebindOnSettleListener == null) {
+            rebindOnSettleListener = new IFastScrollListener() {
+                @Override
+                public void onFastScrollSettled(int position) {
+                    rebindVisibleItems();
+                }
+            };
+            fastScrollDispatcher.addListener(rebindOnSettleListener);
+        } else if (!enabled && rebindOnSettleListener != null) {
+            fastScrollDispatcher.removeListener(rebindOnSettleListener);
+            rebindOnSettleListener = null;
+        }
+        return this;
+    }
+
+    private void rebindVisibleItems() {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        RecyclerView.LayoutManager manager = recyclerView.getLayoutManager();
+        if (adapter == null || !(manager instanceof LinearLayoutManager)) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) manager;
+        int first = layoutManager.findFirstVisibleItemPosition();
+        if (first != RecyclerView.NO_POSITION) {
+            adapter.notifyItemRangeChanged(first, layoutManager.findLastVisibleItemPosition() - first + 1, PAYLOAD_FAST_SCROLL_SETTLED);
+        }
+    }
+
+    /**
+     * Provides the ability to programmatically set the minimum interval between two position updates
+     * sent to fast scroll listeners. Defaults to 50 milliseconds.
+     *
+     * @param milliseconds between two position updates.
+     */
+    public MaterialScrollBar setFastScrollThrottle(int milliseconds) {
+        fastScrollDispatcher.setThrottle(milliseconds);
         return this;
     }
 
@@ -95,9 +333,18 @@ public class MaterialScrollBar extends RelativeLayout {
     public MaterialScrollBar(Context context, RecyclerView recyclerView, boolean lightOnTouch) {
         super(context);
 
-        background = new View(context);
+        governor = new UpdateGovernor(context);
+        geometry = new Geometry(context.getResources().getDisplayMetrics().density, 8, 0, 0);
 
-        RelativeLayout.LayoutParams lp = new RelativeLayout.LayoutParams(Utils.getDP(8, this), LayoutParams.MATCH_PARENT);
+        background = new View(context) {
+            @Override
+            public boolean hasOverlappingRendering() {
+                //A single colour fill, so the alpha can be applied without an offscreen layer.
+                return false;
+            }
+        };
+
+        RelativeLayout.LayoutParams lp = new RelativeLayout.LayoutParams(geometry.trackWidth, LayoutParams.MATCH_PARENT);
         lp.addRule(ALIGN_PARENT_RIGHT);
         background.setLayoutParams(lp);
 
@@ -105,7 +352,7 @@ public class MaterialScrollBar extends RelativeLayout {
         background.setAlpha(0.4F);
 
         handle = new View(context);
-        lp = new RelativeLayout.LayoutParams(Utils.getDP(8, this), Utils.getDP(48, this));
+        lp = new RelativeLayout.LayoutParams(geometry.trackWidth, geometry.handleHeight);
         lp.addRule(ALIGN_PARENT_RIGHT);
         handle.setLayoutParams(lp);
 
@@ -131,73 +378,372 @@ public class MaterialScrollBar extends RelativeLayout {
 
         setId(R.id.reservedNamedId);
         if (recyclerView.getParent() instanceof RelativeLayout) {
-            LayoutParams layoutParams = new LayoutParams(Utils.getDP(20, this), ViewGroup.LayoutParams.MATCH_PARENT);
+            LayoutParams layoutParams = new LayoutParams(getBarWidth(), ViewGroup.LayoutParams.MATCH_PARENT);
             layoutParams.addRule(ALIGN_RIGHT, recyclerView.getId());
             layoutParams.addRule(ALIGN_TOP, recyclerView.getId());
             layoutParams.addRule(ALIGN_BOTTOM, recyclerView.getId());
             ((ViewGroup) recyclerView.getParent()).addView(this, layoutParams);
         } else {
-            FrameLayout.LayoutParams layoutParams = new FrameLayout.LayoutParams(Utils.getDP(20, this), ViewGroup.LayoutParams.MATCH_PARENT);
+            FrameLayout.LayoutParams layoutParams = new FrameLayout.LayoutParams(getBarWidth(), ViewGroup.LayoutParams.MATCH_PARENT);
             layoutParams.gravity = Gravity.RIGHT;
             ((ViewGroup) recyclerView.getParent()).addView(this, layoutParams);
         }
-        recyclerView.addOnScrollListener(new ScrollListener(this));
+        scrollListener = new ScrollListener(this);
+        recyclerView.addOnScrollListener(scrollListener);
+        recyclerView.setTag(R.id.materialScrollBarTag, this);
         this.recyclerView = recyclerView;
 
         setTouchIntercept();
 
         hidden = true;
-        setTranslationX(Utils.getDP(8, this));
+        setTranslationX(geometry.hiddenOffset);
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        float density = getResources().getDisplayMetrics().density;
+        if (density != geometry.density) {
+            geometry = geometry.withDensity(density);
+            applyGeometry();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        //The adapter was not observed while detached; the section index is rebuilt when next needed.
+        invalidateSectionIndex();
+        if (hideDeadline != 0) {
+            checkHideDeadline();
+        }
+    }
+
+    /**
+     * Unregisters every adapter observer and drops pending callbacks, since an adapter or a looper
+     * which outlives the view would otherwise keep the bar and its Activity alive.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (framePosted) {
+            framePosted = false;
+            getViewTreeObserver().removeOnPreDrawListener(mFrameListener);
+        }
+        if (labelFramePosted) {
+            labelFramePosted = false;
+            choreographer.removeFrameCallback(mLabelFrame);
+        }
+        fastScrollDispatcher.cancel();
+        mUIHandler.removeCallbacks(mFadeBar);
+        mUIHandler.removeCallbacks(mRefreshLabel);
+        mUIHandler.removeCallbacks(mRebuildTicks);
+        mUIHandler.removeCallbacks(mBuildTicksSlice);
+        mUIHandler.removeCallbacks(mSettle);
+        ticksBuilder = null;
+        hideCheckAt = 0;
+        labelRefreshPosted = false;
+        ticksRebuildPosted = false;
+        settleTarget = RecyclerView.NO_POSITION;
+        if (indexedAdapter != null) {
+            indexedAdapter.unregisterAdapterDataObserver(sectionObserver);
+            indexedAdapter = null;
+        }
+        if (rowIndex != null) {
+            rowIndex.release();
+            rowIndex = null;
+        }
+        if (concatOffsets != null) {
+            concatOffsets.release();
+            concatOffsets = null;
+        }
+        if (sampledIndex != null) {
+            sampledIndex.release();
+            sampledIndex = null;
+        }
+    }
+
+    /**
+     * Resizes the bar, the handle and the indicator after the density changed.
+     */
+    private void applyGeometry() {
+        ViewGroup.LayoutParams layoutParams = getLayoutParams();
+        layoutParams.width = getBarWidth();
+        setLayoutParams(layoutParams);
+
+        layoutParams = handle.getLayoutParams();
+        layoutParams.width = geometry.trackWidth;
+        layoutParams.height = geometry.handleHeight;
+        handle.setLayoutParams(layoutParams);
+
+        layoutParams = background.getLayoutParams();
+        layoutParams.width = geometry.trackWidth;
+        background.setLayoutParams(layoutParams);
+
+        if (hidden) {
+            setTranslationX(geometry.hiddenOffset);
+        }
+        if (sectionTicks != null) {
+            sectionTicks.setGeometry(geometry);
+            invalidateSectionIndex();
+        }
+        if (indicator != null) {
+            indicator.applyGeometry(geometry);
+            governor.invalidateLabel();
+        }
     }
 
     @SuppressLint("ClickableViewAccessibility")
     private void setTouchIntercept() {
         setOnTouchListener((v, event) -> {
-            if (handleTouchOnly && hidden) {
+            if (!ScrollTrace.enabled) {
+                return onBarTouch(event);
+            }
+            ScrollTrace.begin(ScrollTrace.TOUCH);
+            try {
+                return onBarTouch(event);
+            } finally {
+                ScrollTrace.end();
+            }
+        });
+    }
+
+    private boolean onBarTouch(MotionEvent event) {
+        if (handleTouchOnly && hidden) {
+            return false;
+        }
+        if (!totallyHidden) {
+            if (event.getAction() == MotionEvent.ACTION_DOWN && event.getX() < getWidth() - geometry.barWidth) {
+                //The column for the labels of the section marks belongs to the list.
+                return false;
+            }
+            if (event.getAction() == MotionEvent.ACTION_DOWN && handleTouchOnly && (event.getY() < handle.getY() || event.getY() > (handle.getY() + handle.getHeight()))) {
                 return false;
             }
-            if (!totallyHidden) {
-                if (event.getAction() == MotionEvent.ACTION_DOWN && handleTouchOnly && (event.getY() < handle.getY() || event.getY() > (handle.getY() + handle.getHeight()))) {
-                    return false;
-                }
 
-                if (event.getAction() != MotionEvent.ACTION_UP && event.getAction() != MotionEvent.ACTION_CANCEL) {
-                    int newPosition = (int) (recyclerView.getAdapter().getItemCount() * (event.getY() / (getHeight() - handle.getHeight())));
-                    if (mFastScrolledListener != null) {
-                        mFastScrolledListener.onFastScrolledTo(newPosition);
+            if (event.getAction() != MotionEvent.ACTION_UP && event.getAction() != MotionEvent.ACTION_CANCEL) {
+                int newPosition = getPositionForTouch(event.getY());
+                if (ScrollTrace.enabled) {
+                    ScrollTrace.counter(ScrollTrace.COUNTER_TARGET, newPosition);
+                }
+                fastScrollDispatcher.onMove(newPosition, getVisibleItemCount(), recyclerView.getAdapter().getItemCount());
+                if (event.getAction() == MotionEvent.ACTION_DOWN && (event.getY() < handle.getY() || event.getY() > (handle.getY() + handle.getHeight()))) {
+                    //A tap on the track away from the handle.
+                    jumpToPosition(newPosition);
+                    touchJumped = true;
+                } else {
+                    if (touchJumped) {
+                        //The tap turned into a drag, which the pending smooth scroll would fight.
+                        cancelSettle();
+                        touchJumped = false;
                     }
                     recyclerView.scrollToPosition(newPosition);
-                    if (indicator != null && indicator.getVisibility() == INVISIBLE) {
-                        indicator.setVisibility(VISIBLE);
-                    }
+                }
+                if (indicator != null && indicator.getVisibility() == INVISIBLE) {
+                    indicator.setVisibility(VISIBLE);
+                }
 
-                    if (lightOnTouch) {
-                        handle.setBackgroundColor(handleColour);
-                    }
+                if (lightOnTouch) {
+                    handle.setBackgroundColor(handleColour);
+                }
 
-                    mUIHandler.removeCallbacks(mFadeBar);
-                    fadeIn();
-                } else {
-                    if (mFastScrolledListener != null) {
-                        mFastScrolledListener.onFastScrolledTo(-1000);
-                    }
-                    if (indicator != null && indicator.getVisibility() == VISIBLE) {
-                        indicator.setVisibility(INVISIBLE);
-                    }
+                cancelHide();
+                fadeIn();
+            } else {
+                fastScrollDispatcher.onEnd();
+                touchJumped = false;
+                if (indicator != null && indicator.getVisibility() == VISIBLE) {
+                    indicator.setVisibility(INVISIBLE);
+                }
 
-                    if (lightOnTouch) {
-                        handle.setBackgroundColor(handleOffColour);
-                    }
+                if (lightOnTouch) {
+                    handle.setBackgroundColor(handleOffColour);
+                }
 
-                    if (hide) {
-                        mUIHandler.removeCallbacks(mFadeBar);
-                        mUIHandler.postDelayed(mFadeBar, hideDuration);
-                    }
+                if (hide) {
+                    scheduleHide();
                 }
-                return true;
             }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Scrolls to a position quickly, however far away it is. A distant target is first jumped to
+     * directly, landing one screen short of it, and the last screen is then smooth scrolled so the
+     * movement stays readable. The items in between are never bound. The handle and indicator follow
+     * the list as usual.
+     *
+     * @param position The adapter position to scroll to.
+     */
+    public MaterialScrollBar jumpToPosition(int position) {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        RecyclerView.LayoutManager manager = recyclerView.getLayoutManager();
+        if (adapter == null || adapter.getItemCount() == 0) {
+            return this;
+        }
+        position = Math.max(0, Math.min(position, adapter.getItemCount() - 1));
+        if (!(manager instanceof LinearLayoutManager)) {
+            recyclerView.scrollToPosition(position);
+            return this;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) manager;
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) {
+            recyclerView.scrollToPosition(position);
+            return this;
+        }
+        int window = last - first + 1;
+        if (Math.abs(position - first) > window * 2) {
+            int landing = position > first ? position - window : position + window;
+            recyclerView.scrollToPosition(Math.max(0, Math.min(landing, adapter.getItemCount() - 1)));
+        }
+        //Smooth scroll once the jump has been laid out.
+        settleTarget = position;
+        mUIHandler.removeCallbacks(mSettle);
+        mUIHandler.post(mSettle);
+        return this;
+    }
+
+    /**
+     * Scrolls quickly to the first element of the section with the given label, as shown by the
+     * indicator. See {@link #jumpToPosition(int)}. Requires an indicator. An ISortedKeyAdapter whose
+     * keys start with the label is searched with {@link #findFirstPositionForKey(String)}; otherwise
+     * the sections are computed from every element of the adapter the first time they are needed,
+     * and searched by label.
+     *
+     * @param label The label of the section.
+     * @return True if a section with the label was found.
+     */
+    public boolean jumpToSection(String label) {
+        if (indicator == null) {
             return false;
-        });
+        }
+        int position = findFirstPositionForKey(label);
+        if (position >= 0 && resolveLabelSource(position)
+                && label.equals(indicator.getSectionLabel(labelPosition, labelAdapter))) {
+            jumpToPosition(position);
+            return true;
+        }
+        SectionIndex index = getSectionIndex();
+        int section = index == null ? -1 : index.findSection(label);
+        if (section < 0) {
+            return false;
+        }
+        jumpToPosition(index.getSectionStart(section));
+        return true;
+    }
+
+    /**
+     * Finds the first element whose key is equal to or sorts after the given key with a binary
+     * search, asking the adapter for O(log n) keys. The adapter, or for a ConcatAdapter the first of
+     * its sub-adapters to do so, must implement ISortedKeyAdapter.
+     *
+     * @param key The key, or a prefix of it such as a single letter.
+     * @return The adapter position of the element, the last position if every key sorts before the
+     * given one, or -1 if there is no sorted adapter or it is empty.
+     */
+    public int findFirstPositionForKey(String key) {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        int offset = 0;
+        if (adapter instanceof ConcatAdapter) {
+            RecyclerView.Adapter<?> sortedAdapter = null;
+            for (RecyclerView.Adapter<?> subAdapter : ((ConcatAdapter) adapter).getAdapters()) {
+                if (subAdapter instanceof ISortedKeyAdapter) {
+                    sortedAdapter = subAdapter;
+                    break;
+                }
+                offset += subAdapter.getItemCount();
+            }
+            adapter = sortedAdapter;
+        }
+        if (!(adapter instanceof ISortedKeyAdapter) || adapter.getItemCount() == 0) {
+            return -1;
+        }
+        ISortedKeyAdapter keys = (ISortedKeyAdapter) adapter;
+        int low = 0;
+        int high = adapter.getItemCount() - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys.compareKeys(keys.getSortKeyForElement(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return offset + low;
+    }
+
+    private void settle() {
+        if (settleTarget != RecyclerView.NO_POSITION) {
+            recyclerView.smoothScrollToPosition(settleTarget);
+            settleTarget = RecyclerView.NO_POSITION;
+        }
+    }
+
+    /**
+     * Drops the smooth scroll which ends a jump, whether it is still pending or already running.
+     */
+    private void cancelSettle() {
+        mUIHandler.removeCallbacks(mSettle);
+        settleTarget = RecyclerView.NO_POSITION;
+        recyclerView.stopScroll();
+    }
+
+    /**
+     * @return The number of items currently laid out on screen, at least one.
+     */
+    private int getVisibleItemCount() {
+        RecyclerView.LayoutManager manager = recyclerView.getLayoutManager();
+        if (manager instanceof LinearLayoutManager) {
+            LinearLayoutManager layoutManager = (LinearLayoutManager) manager;
+            int first = layoutManager.findFirstVisibleItemPosition();
+            if (first != RecyclerView.NO_POSITION) {
+                return layoutManager.findLastVisibleItemPosition() - first + 1;
+            }
+        }
+        return Math.max(1, recyclerView.getChildCount());
+    }
+
+    /**
+     * @param y Touch position on the bar.
+     * @return The adapter position the list should be scrolled to.
+     */
+    private int getPositionForTouch(float y) {
+        float fraction = y / (getHeight() - handle.getHeight());
+        RowIndex rows = getRowIndex();
+        if (rows != null) {
+            return rows.getFirstPositionInRow((int) (rows.getRowCount() * fraction));
+        }
+        return (int) (recyclerView.getAdapter().getItemCount() * fraction);
+    }
+
+    /**
+     * @return The row index of a grid whose SpanSizeLookup is not the default one, or null if every
+     * item takes a single span and rows can be derived from the span count.
+     */
+    @Nullable
+    private RowIndex getRowIndex() {
+        RecyclerView.LayoutManager manager = recyclerView.getLayoutManager();
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (!(manager instanceof GridLayoutManager) || adapter == null
+                || ((GridLayoutManager) manager).getSpanSizeLookup() instanceof GridLayoutManager.DefaultSpanSizeLookup) {
+            if (rowIndex != null) {
+                rowIndex.release();
+                rowIndex = null;
+            }
+            return null;
+        }
+        GridLayoutManager gridManager = (GridLayoutManager) manager;
+        if (rowIndex == null || !rowIndex.matches(adapter, gridManager)) {
+            if (rowIndex != null) {
+                rowIndex.release();
+            }
+            rowIndex = new RowIndex(adapter, gridManager);
+        }
+        return rowIndex;
     }
 
     /**
@@ -210,6 +756,18 @@ public class MaterialScrollBar extends RelativeLayout {
         return this;
     }
 
+    /**
+     * Forces the reduced-work profile, which is otherwise only used on low RAM devices or when recent
+     * frames overran their budget. Labels are computed less often and the bar appears and disappears
+     * without animating.
+     *
+     * @param reduced whether the reduced-work profile should always be used.
+     */
+    public MaterialScrollBar setReducedWorkProfile(boolean reduced) {
+        governor.setForceReduced(reduced);
+        return this;
+    }
+
     public MaterialScrollBar setHandleTouchOnly(boolean handleTouchOnly) {
         this.handleTouchOnly = handleTouchOnly;
         return this;
@@ -252,6 +810,9 @@ public class MaterialScrollBar extends RelativeLayout {
         if (indicator != null) {
             ((GradientDrawable) indicator.getBackground()).setColor(handleColour);
         }
+        if (sectionTicks != null) {
+            sectionTicks.setColour(handleColour);
+        }
         if (!lightOnTouch) {
             handle.setBackgroundColor(handleColour);
         }
@@ -374,7 +935,7 @@ public class MaterialScrollBar extends RelativeLayout {
      */
     public MaterialScrollBar setAutoHide(Boolean hide) {
         if (!hide) {
-            mUIHandler.removeCallbacks(mFadeBar);
+            cancelHide();
             setTranslationX(getWidth());
         }
         this.hide = hide;
@@ -386,6 +947,8 @@ public class MaterialScrollBar extends RelativeLayout {
      */
     public MaterialScrollBar removeIndicator() {
         this.indicator = null;
+        governor.invalidateLabel();
+        invalidateSectionIndex();
         return this;
     }
 
@@ -395,8 +958,11 @@ public class MaterialScrollBar extends RelativeLayout {
     public MaterialScrollBar addIndicator(Indicator indicator) {
         indicator.testAdapter(recyclerView.getAdapter());
         this.indicator = indicator;
+        geometry = geometry.withIndicator(indicator.getIndicatorWidth(), indicator.getIndicatorHeight());
         indicator.linkToScrollBar(this);
         indicator.setTextColour(textColour);
+        governor.invalidateLabel();
+        invalidateSectionIndex();
         return this;
     }
 
@@ -406,7 +972,8 @@ public class MaterialScrollBar extends RelativeLayout {
      * @param thickness The desired bar thickness.
      */
     public MaterialScrollBar setBarThickness(int thickness) {
-        thickness = Utils.getDP(thickness, this);
+        geometry = geometry.withTrackWidth(thickness);
+        thickness = geometry.trackWidth;
         LayoutParams layoutParams = (LayoutParams) handle.getLayoutParams();
         layoutParams.width = thickness;
         handle.setLayoutParams(layoutParams);
@@ -415,6 +982,10 @@ public class MaterialScrollBar extends RelativeLayout {
         layoutParams.width = thickness;
         background.setLayoutParams(layoutParams);
 
+        if (sectionTicks != null) {
+            sectionTicks.setGeometry(geometry);
+        }
+
         if (indicator != null) {
             LayoutParams lp = (LayoutParams) indicator.getLayoutParams();
             lp.setMargins(0, 0, handle.getLayoutParams().width, 0);
@@ -423,18 +994,370 @@ public class MaterialScrollBar extends RelativeLayout {
         return this;
     }
 
+    /**
+     * Marks the start of every section of the indicator beside the track, labelled where the label
+     * fits. The bar is widened by a column for the labels, which passes touches through to the list.
+     * Sections are computed from the indicator once, and again only after the adapter reports a
+     * change, a slice of the adapter per loop so that no frame waits for the whole list. The marks
+     * hide with the bar. Requires an indicator.
+     *
+     * @param enabled whether section marks should be shown.
+     */
+    public MaterialScrollBar setSectionTicksEnabled(boolean enabled) {
+        if (enabled && sectionTicks == null) {
+            sectionTicks = new SectionTicks(getContext(), geometry);
+            sectionTicks.setColour(handleColour);
+            sectionTicks.setAlpha(hidden ? 0F : 1F);
+            addView(sectionTicks, 0, new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            applyBarWidth();
+            rebuildTicks();
+        } else if (!enabled && sectionTicks != null) {
+            mUIHandler.removeCallbacks(mBuildTicksSlice);
+            ticksBuilder = null;
+            removeView(sectionTicks);
+            sectionTicks = null;
+            applyBarWidth();
+        }
+        return this;
+    }
+
+    /**
+     * @return The width of the bar, with the column for the labels of the section marks if shown.
+     */
+    private int getBarWidth() {
+        return sectionTicks == null ? geometry.barWidth : geometry.barWidth + geometry.tickLabelWidth;
+    }
+
+    private void applyBarWidth() {
+        ViewGroup.LayoutParams layoutParams = getLayoutParams();
+        if (layoutParams != null) {
+            layoutParams.width = getBarWidth();
+            setLayoutParams(layoutParams);
+        }
+    }
+
+    /**
+     * Fades the section marks with the bar, since a hidden bar keeps the label column on screen.
+     */
+    private void showTicks(boolean shown) {
+        if (sectionTicks == null) {
+            return;
+        }
+        if (governor.isReducedProfile()) {
+            sectionTicks.setAlpha(shown ? 1F : 0F);
+        } else {
+            sectionTicks.animate()
+                    .alpha(shown ? 1F : 0F)
+                    .setDuration(200)
+                    .start();
+        }
+    }
+
+    /**
+     * Marks the section index as out of date. It is rebuilt the next time it is needed, or on the
+     * next loop if section marks are shown, so a burst of adapter notifications costs one rebuild.
+     */
+    private void invalidateSectionIndex() {
+        sectionIndexStale = true;
+        sectionIndexGeneration++;
+        if (sectionTicks != null && !ticksRebuildPosted) {
+            ticksRebuildPosted = true;
+            mUIHandler.post(mRebuildTicks);
+        }
+    }
+
+    /**
+     * Gives the marks an up to date section index. One from the cache is used straight away;
+     * otherwise the index is built a slice at a time by buildTicksSlice.
+     */
+    private void rebuildTicks() {
+        ticksRebuildPosted = false;
+        mUIHandler.removeCallbacks(mBuildTicksSlice);
+        ticksBuilder = null;
+        if (sectionTicks == null) {
+            return;
+        }
+        RecyclerView.Adapter<?> adapter = observeSectionAdapter();
+        if (sectionIndexStale && indicator != null && adapter != null) {
+            SectionIndex cached = loadSectionIndex(adapter);
+            if (cached == null) {
+                ticksBuilder = new SectionIndex.Builder();
+                ticksBuildPosition = 0;
+                ticksBuildGeneration = sectionIndexGeneration;
+                buildTicksSlice();
+                return;
+            }
+            sectionIndex = cached;
+            sectionIndexStale = false;
+        }
+        sectionTicks.setSectionIndex(getSectionIndex(), geometry.handleHeight);
+    }
+
+    /**
+     * Reads the labels of the next slice of the adapter into the section index being built for the
+     * marks, and posts itself again until the end of the adapter. A change to the adapter abandons
+     * the build, as the rebuild it posts starts over.
+     */
+    private void buildTicksSlice() {
+        if (ticksBuilder == null || sectionTicks == null) {
+            return;
+        }
+        if (ticksBuildGeneration != sectionIndexGeneration) {
+            ticksBuilder = null;
+            return;
+        }
+        if (!sectionIndexStale) {
+            //A caller which could not wait built the index in one go.
+            ticksBuilder = null;
+            sectionTicks.setSectionIndex(sectionIndex, geometry.handleHeight);
+            return;
+        }
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter == null || adapter != indexedAdapter || indicator == null) {
+            ticksBuilder = null;
+            invalidateSectionIndex();
+            return;
+        }
+        int itemCount = adapter.getItemCount();
+        ticksBuildPosition = addSectionLabels(ticksBuilder, ticksBuildPosition, itemCount, System.nanoTime() + TICKS_BUILD_SLICE_NANOS);
+        if (ticksBuildPosition < itemCount) {
+            mUIHandler.post(mBuildTicksSlice);
+            return;
+        }
+        sectionIndex = ticksBuilder.build(itemCount);
+        ticksBuilder = null;
+        sectionIndexStale = false;
+        saveSectionIndex(adapter, sectionIndex);
+        sectionTicks.setSectionIndex(sectionIndex, geometry.handleHeight);
+    }
+
+    /**
+     * @return The sections of the current adapter according to the indicator, or null if there is
+     * no indicator.
+     */
+    @Nullable
+    SectionIndex getSectionIndex() {
+        RecyclerView.Adapter<?> adapter = observeSectionAdapter();
+        if (indicator == null || adapter == null) {
+            sectionIndex = null;
+        } else if (sectionIndexStale) {
+            sectionIndex = loadOrBuildSectionIndex(adapter);
+        }
+        sectionIndexStale = false;
+        return sectionIndex;
+    }
+
+    /**
+     * Moves the section observer to the current adapter, marking the section index out of date if
+     * the adapter was replaced.
+     *
+     * @return The current adapter.
+     */
+    private RecyclerView.Adapter<?> observeSectionAdapter() {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter != indexedAdapter) {
+            if (indexedAdapter != null) {
+                indexedAdapter.unregisterAdapterDataObserver(sectionObserver);
+            }
+            indexedAdapter = adapter;
+            if (adapter != null) {
+                adapter.registerAdapterDataObserver(sectionObserver);
+            }
+            sectionIndexStale = true;
+            sectionIndexGeneration++;
+        }
+        return adapter;
+    }
+
+    /**
+     * Keeps the section index in the app's cache directory, so that it is available immediately the
+     * next time the same data is shown instead of being rebuilt from every element of the adapter.
+     * The adapter must implement ICacheableAdapter (for a ConcatAdapter, every sub-adapter must); its
+     * version decides whether a cached index is still valid.
+     *
+     * @param name Identifies the list, distinct for every list with different data.
+     */
+    public MaterialScrollBar setSectionIndexCache(String name) {
+        sectionIndexCacheName = name;
+        return this;
+    }
+
+    /**
+     * For lists too large to read every label, such as millions of rows. Indicator labels are then
+     * read from a sampled index of every interval-th label, which takes a fraction of a full scan to
+     * build. Between two samples with different labels, the label of the position the handle reaches
+     * is read directly and remembered, so a frame never reads more than one label. Elements must be
+     * sorted by their label. Does not apply to a ConcatAdapter, nor to a DateAndTimeIndicator which
+     * shows the time.
+     *
+     * @param interval number of elements between two samples, or 0 to read every label on demand.
+     */
+    public MaterialScrollBar setSampledSectionIndex(int interval) {
+        sampleInterval = Math.max(0, interval);
+        if (sampledIndex != null) {
+            sampledIndex.release();
+            sampledIndex = null;
+        }
+        governor.invalidateLabel();
+        return this;
+    }
+
+    /**
+     * @return The sampled index for the current adapter and indicator, or null if it does not apply.
+     */
+    private SampledSectionIndex getSampledIndex() {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (sampleInterval == 0 || adapter == null || adapter instanceof ConcatAdapter || !indicator.isTextSectionLabel()) {
+            return null;
+        }
+        if (sampledIndex == null || sampledIndex.adapter != adapter || sampledIndex.indicator != indicator) {
+            if (sampledIndex != null) {
+                sampledIndex.release();
+            }
+            sampledIndex = new SampledSectionIndex(adapter, indicator, sampleInterval);
+        }
+        return sampledIndex;
+    }
+
+    private SectionIndex loadOrBuildSectionIndex(RecyclerView.Adapter<?> adapter) {
+        SectionIndex index = loadSectionIndex(adapter);
+        if (index == null) {
+            index = buildSectionIndex(adapter);
+            saveSectionIndex(adapter, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return The section index kept in the cache for the adapter, or null if there is none.
+     */
+    private SectionIndex loadSectionIndex(RecyclerView.Adapter<?> adapter) {
+        SectionIndexCache cache = getSectionIndexCache(adapter);
+        return cache == null ? null : cache.load(getIndexVersion(adapter), adapter.getItemCount());
+    }
+
+    private void saveSectionIndex(RecyclerView.Adapter<?> adapter, SectionIndex index) {
+        SectionIndexCache cache = getSectionIndexCache(adapter);
+        if (cache != null) {
+            cache.saveAsync(index, getIndexVersion(adapter));
+        }
+    }
+
+    /**
+     * @return The cache for the section index of the adapter, or null if it is not to be cached.
+     */
+    private SectionIndexCache getSectionIndexCache(RecyclerView.Adapter<?> adapter) {
+        if (sectionIndexCacheName == null || !isCacheable(adapter)) {
+            return null;
+        }
+        File directory = new File(getContext().getCacheDir(), "materialscrollbar");
+        return new SectionIndexCache(new File(directory, sectionIndexCacheName + "-" + indicator.getSectionCacheKey()
+                + "-" + Locale.getDefault().toLanguageTag() + ".idx"));
+    }
+
+    private static boolean isCacheable(RecyclerView.Adapter<?> adapter) {
+        if (adapter instanceof ConcatAdapter) {
+            for (RecyclerView.Adapter<?> subAdapter : ((ConcatAdapter) adapter).getAdapters()) {
+                if (!(subAdapter instanceof ICacheableAdapter)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return adapter instanceof ICacheableAdapter;
+    }
+
+    private static long getIndexVersion(RecyclerView.Adapter<?> adapter) {
+        if (adapter instanceof ConcatAdapter) {
+            long version = 17;
+            for (RecyclerView.Adapter<?> subAdapter : ((ConcatAdapter) adapter).getAdapters()) {
+                version = version * 31 + ((ICacheableAdapter) subAdapter).getIndexVersion();
+                version = version * 31 + subAdapter.getItemCount();
+            }
+            return version;
+        }
+        return ((ICacheableAdapter) adapter).getIndexVersion();
+    }
+
+    private SectionIndex buildSectionIndex(RecyclerView.Adapter<?> adapter) {
+        if (ScrollTrace.enabled) {
+            ScrollTrace.begin(ScrollTrace.BUILD_SECTION_INDEX);
+        }
+        SectionIndex.Builder builder = new SectionIndex.Builder();
+        int itemCount = adapter.getItemCount();
+        addSectionLabels(builder, 0, itemCount, Long.MAX_VALUE);
+        if (ScrollTrace.enabled) {
+            ScrollTrace.end();
+        }
+        return builder.build(itemCount);
+    }
+
+    /**
+     * Adds the labels of the positions from position on to the builder, a batch at a time, until the
+     * end of the adapter or the deadline.
+     *
+     * @param deadline {@link System#nanoTime()} after which no further batch is read.
+     * @return The first position not added.
+     */
+    private int addSectionLabels(SectionIndex.Builder builder, int position, int itemCount, long deadline) {
+        String[] labels = sectionLabels;
+        while (position < itemCount && System.nanoTime() < deadline) {
+            if (!resolveLabelSource(position)) {
+                builder.add(position++, null);
+                continue;
+            }
+            //A batch never crosses into the next sub-adapter of a ConcatAdapter.
+            int batch = Math.min(Math.min(labels.length, labelAdapter.getItemCount() - labelPosition), itemCount - position);
+            indicator.getSectionLabels(labelPosition, batch, labelAdapter, labels);
+            for (int i = 0; i < batch; i++) {
+                builder.add(position++, labels[i]);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Finds the adapter that provides the label of a position, looking into the sub-adapters of a
+     * ConcatAdapter, and stores it with the position within it in labelAdapter and labelPosition.
+     *
+     * @return False if no adapter able to label the position was found.
+     */
+    private boolean resolveLabelSource(int position) {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter instanceof ConcatAdapter) {
+            ConcatAdapterOffsets offsets = getConcatOffsets((ConcatAdapter) adapter);
+            if (!offsets.resolve(position) || !indicator.supportsAdapter(offsets.resolvedAdapter)) {
+                return false;
+            }
+            labelAdapter = offsets.resolvedAdapter;
+            labelPosition = offsets.resolvedPosition;
+        } else {
+            labelAdapter = adapter;
+            labelPosition = position;
+        }
+        return true;
+    }
+
     /**
      * Animates the bar out of view
      */
     private void fadeOut() {
         if (!hidden) {
-            animate()
-                    .translationX(getWidth())
-                    .setDuration(200)
-                    .start();
+            if (ScrollTrace.enabled) {
+                ScrollTrace.begin(ScrollTrace.FADE_OUT);
+            }
+            if (governor.isReducedProfile()) {
+                setTranslationX(getWidth());
+            } else {
+                animate()
+                        .translationX(getWidth())
+                        .setDuration(200)
+                        .start();
+            }
             hidden = true;
-            if (mFastScrolledListener != null) {
-                mFastScrolledListener.onFastScrolledTo(-1000);
+            showTicks(false);
+            if (ScrollTrace.enabled) {
+                ScrollTrace.end();
             }
         }
     }
@@ -444,12 +1367,23 @@ public class MaterialScrollBar extends RelativeLayout {
      */
     private void fadeIn() {
         if (hidden && hide && !totallyHidden) {
-            setTranslationX(getWidth());
+            if (ScrollTrace.enabled) {
+                ScrollTrace.begin(ScrollTrace.FADE_IN);
+            }
             hidden = false;
-            animate()
-                    .translationX(0)
-                    .setDuration(200)
-                    .start();
+            showTicks(true);
+            if (governor.isReducedProfile()) {
+                setTranslationX(0);
+            } else {
+                setTranslationX(getWidth());
+                animate()
+                        .translationX(0)
+                        .setDuration(200)
+                        .start();
+            }
+            if (ScrollTrace.enabled) {
+                ScrollTrace.end();
+            }
         }
     }
 
@@ -461,6 +1395,203 @@ public class MaterialScrollBar extends RelativeLayout {
         fadeOut();
     }
 
+    /**
+     * Moves the hide deadline to hideDuration from now. Only one check is ever pending; when it runs
+     * before the deadline it re-arms itself for the remainder instead of being removed and re-posted
+     * on every touch.
+     */
+    private void scheduleHide() {
+        long now = SystemClock.uptimeMillis();
+        hideDeadline = now + hideDuration;
+        if (hideCheckAt == 0 || hideCheckAt > hideDeadline) {
+            if (hideCheckAt != 0) {
+                mUIHandler.removeCallbacks(mFadeBar);
+            }
+            hideCheckAt = hideDeadline;
+            mUIHandler.postDelayed(mFadeBar, hideDuration);
+        }
+    }
+
+    /**
+     * Keeps the bar visible. Any pending check will find no deadline and do nothing.
+     */
+    private void cancelHide() {
+        hideDeadline = 0;
+    }
+
+    private void checkHideDeadline() {
+        hideCheckAt = 0;
+        if (hideDeadline == 0) {
+            return;
+        }
+        long remaining = hideDeadline - SystemClock.uptimeMillis();
+        if (remaining > 0) {
+            hideCheckAt = hideDeadline;
+            mUIHandler.postDelayed(mFadeBar, remaining);
+        } else {
+            hideDeadline = 0;
+            fadeOut();
+        }
+    }
+
+    /**
+     * Coalesces all scroll callbacks received during a frame into a single update, made just before
+     * that same frame is drawn so the handle never trails the list. The label, which may resize the
+     * indicator, is updated on the next frame callback instead, since a layout change requested
+     * while drawing would only be laid out on the frame after.
+     */
+    private void requestFrame() {
+        if (!framePosted) {
+            framePosted = true;
+            getViewTreeObserver().addOnPreDrawListener(mFrameListener);
+        }
+    }
+
+    private void onFrame() {
+        framePosted = false;
+        long start = System.nanoTime();
+        boolean tracing = ScrollTrace.enabled;
+        if (tracing) {
+            ScrollTrace.begin(ScrollTrace.ON_FRAME);
+            ScrollTrace.begin(ScrollTrace.SCROLL_PROGRESS);
+        }
+        float progress = scrollListener.calculateScrollProgress(recyclerView);
+        if (tracing) {
+            ScrollTrace.end();
+        }
+        float scroll = progress * (getHeight() - handle.getHeight());
+        if (scroll >= 0) {
+            handle.setY(scroll);
+            if (indicator != null && indicator.getVisibility() == VISIBLE) {
+                indicator.setScroll(scroll);
+            }
+        }
+        if (scrolledPosition >= 0) {
+            handleCostNanos = System.nanoTime() - start;
+            if (!labelFramePosted) {
+                labelFramePosted = true;
+                choreographer.postFrameCallback(mLabelFrame);
+            }
+        }
+        if (tracing) {
+            ScrollTrace.end();
+        }
+    }
+
+    private void onLabelFrame(long frameTimeNanos) {
+        labelFramePosted = false;
+        if (scrolledPosition < 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        governor.onFrame(scrolledPosition, start);
+        updateLabel();
+        governor.onFrameCost(handleCostNanos + System.nanoTime() - start);
+    }
+
+    /**
+     * Sets the indicator text for the position last scrolled to, unless the governor asks for the
+     * label to be delayed, in which case a single refresh is scheduled.
+     */
+    private void updateLabel() {
+        if (indicator == null || indicator.getVisibility() != VISIBLE || scrolledPosition < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long delay = governor.labelDelay(scrolledPosition, now);
+        if (ScrollTrace.enabled && delay <= 0) {
+            labelRequests++;
+            if (delay < 0) {
+                labelHits++;
+            }
+            ScrollTrace.counter(ScrollTrace.COUNTER_LABEL_HIT_RATE, labelHits * 100L / labelRequests);
+        }
+        if (delay == 0) {
+            SampledSectionIndex sampled = getSampledIndex();
+            if (sampled != null) {
+                indicator.setLabel(sampled.getLabel(scrolledPosition));
+            } else if (resolveLabelSource(scrolledPosition)) {
+                //Headers and footers without labels keep showing the label of the last section.
+                if (ScrollTrace.enabled) {
+                    ScrollTrace.begin(ScrollTrace.TEXT_ELEMENT);
+                }
+                String label = indicator.getTextElement(labelPosition, labelAdapter);
+                indicator.setLabel(label);
+                if (ScrollTrace.enabled) {
+                    ScrollTrace.end();
+                }
+                if (indicator instanceof CustomIndicator && ((CustomIndicator) indicator).isPrecomputedTextEnabled()) {
+                    prefetchNeighbourLabels((CustomIndicator) indicator, label);
+                }
+            }
+            governor.onLabelComputed(scrolledPosition, now);
+        } else if (delay > 0 && !labelRefreshPosted) {
+            labelRefreshPosted = true;
+            mUIHandler.postDelayed(mRefreshLabel, delay / 1000000 + 1);
+        }
+    }
+
+    /**
+     * Has the labels of the sections around the one shown laid out in the background. Without an up
+     * to date section index, only a bulk adapter is asked, for the label a screen ahead and only
+     * once the label shown changes, so that prefetching costs no adapter call on most frames.
+     */
+    private void prefetchNeighbourLabels(CustomIndicator customIndicator, String shown) {
+        if (sectionIndex != null && !sectionIndexStale && indexedAdapter == recyclerView.getAdapter()) {
+            int section = sectionIndex.getSectionForPosition(scrolledPosition);
+            int last = Math.min(sectionIndex.getSectionCount() - 1, section + PREFETCH_SECTIONS);
+            for (int i = Math.max(0, section - PREFETCH_SECTIONS); i <= last; i++) {
+                customIndicator.precompute(sectionIndex.getSectionLabel(i));
+            }
+            return;
+        }
+        if (shown == null || shown.equals(prefetchedLabel)) {
+            return;
+        }
+        boolean forward = scrolledPosition >= prefetchedPosition;
+        prefetchedLabel = shown;
+        prefetchedPosition = scrolledPosition;
+        int window = getVisibleItemCount();
+        int target = forward ? scrolledPosition + window : scrolledPosition - window;
+        if (target >= 0 && target < recyclerView.getAdapter().getItemCount() && resolveLabelSource(target)
+                && labelAdapter instanceof IBulkCustomAdapter) {
+            customIndicator.getSectionLabels(labelPosition, 1, labelAdapter, prefetchBuffer);
+            customIndicator.precompute(prefetchBuffer[0]);
+        }
+    }
+
+    /**
+     * @param adapter  The adapter of the list, or one of the sub-adapters of a ConcatAdapter.
+     * @param position A position within that adapter.
+     * @return The position in the adapter of the list, or -1 if the adapter is not part of the list.
+     */
+    int getGlobalPosition(RecyclerView.Adapter<?> adapter, int position) {
+        RecyclerView.Adapter<?> listAdapter = recyclerView.getAdapter();
+        if (adapter == listAdapter) {
+            return position;
+        }
+        if (!(listAdapter instanceof ConcatAdapter)) {
+            return -1;
+        }
+        int start = getConcatOffsets((ConcatAdapter) listAdapter).getStart(adapter);
+        return start < 0 ? -1 : start + position;
+    }
+
+    private ConcatAdapterOffsets getConcatOffsets(ConcatAdapter adapter) {
+        if (concatOffsets == null || concatOffsets.adapter != adapter) {
+            if (concatOffsets != null) {
+                concatOffsets.release();
+            }
+            concatOffsets = new ConcatAdapterOffsets(adapter);
+        }
+        return concatOffsets;
+    }
+
+    private void refreshLabel() {
+        labelRefreshPosted = false;
+        updateLabel();
+    }
+
     private class ScrollListener extends RecyclerView.OnScrollListener {
 
         MaterialScrollBar materialScrollBar;
@@ -471,13 +1602,13 @@ public class MaterialScrollBar extends RelativeLayout {
 
         @Override
         public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            if (ScrollTrace.enabled) {
+                ScrollTrace.begin(ScrollTrace.ON_SCROLLED);
+            }
             super.onScrolled(recyclerView, dx, dy);
-            float scroll = calculateScrollProgress(recyclerView) * (materialScrollBar.getHeight() - handle.getHeight());
-            if (scroll >= 0) {
-                handle.setY(scroll);
-                if (indicator != null && indicator.getVisibility() == VISIBLE) {
-                    indicator.setScroll(scroll);
-                }
+            materialScrollBar.requestFrame();
+            if (ScrollTrace.enabled) {
+                ScrollTrace.end();
             }
         }
 
@@ -504,6 +1635,19 @@ public class MaterialScrollBar extends RelativeLayout {
                 return 0;
             }
             int recyclerHeight = recyclerView.getHeight();
+
+            RowIndex rows = getRowIndex();
+            if (rows != null) {
+                int rowsInWindow = recyclerHeight / itemHeight;
+                int numScrollableRows = rows.getRowCount() - rowsInWindow;
+                if (numScrollableRows <= 0) {
+                    return 0;
+                }
+                int currentRow = rows.getRowForPosition(lastFullyVisiblePosition) - (rowsInWindow - 1);
+                scrolledPosition = rows.getFirstPositionInRow(currentRow);
+                return (float) currentRow / numScrollableRows;
+            }
+
             int itemsInWindow = (recyclerHeight / itemHeight) * itemPerLines;
 
             int numItemsInList = recyclerView.getAdapter().getItemCount();
@@ -513,23 +1657,25 @@ public class MaterialScrollBar extends RelativeLayout {
                 return 0;
             }
             int currentSection = lastFullyVisiblePosition - indexOfLastFullyVisibleItemInFirstSection;
-            if (indicator != null && indicator.getVisibility() == VISIBLE) {
-                indicator.textView.setText(indicator.getTextElement(currentSection, recyclerView.getAdapter()));
-            }
+            scrolledPosition = currentSection;
             return (float) currentSection / numScrollableSectionsInList;
         }
 
         @Override
         public void onScrollStateChanged(@NonNull final RecyclerView recyclerView, int newState) {
             super.onScrollStateChanged(recyclerView, newState);
+            if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                governor.onIdle();
+                labelRequests = 0;
+                labelHits = 0;
+            }
 
             if (hide) {
                 if (newState == RecyclerView.SCROLL_STATE_IDLE) {
-                    mUIHandler.removeCallbacks(mFadeBar);
-                    mUIHandler.postDelayed(mFadeBar, hideDuration);
+                    scheduleHide();
                 } else if (newState == RecyclerView.SCROLL_STATE_DRAGGING) {
                     if (recyclerView.canScrollVertically(1) || recyclerView.canScrollVertically(-1) || recyclerView.canScrollHorizontally(1) || recyclerView.canScrollHorizontally(-1)) {
-                        mUIHandler.removeCallbacks(mFadeBar);
+                        cancelHide();
                         materialScrollBar.fadeIn();
                     }
                 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.RelativeLayout;
+
+/**
+ * A column of keys, A to Z by default, placed beside a MaterialScrollBar. Touching a key jumps to
+ * the first element for that key, found by binary search through
+ * {@link MaterialScrollBar#findFirstPositionForKey(String)}, so the adapter must implement
+ * ISortedKeyAdapter.
+ */
+@SuppressLint("ViewConstructor")
+public class QuickIndexStrip extends View {
+
+    private final MaterialScrollBar materialScrollBar;
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private String[] keys = {"#", "A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M",
+            "N", "O", "P", "Q", "R", "S", "T", "U", "V", "W", "X", "Y", "Z"};
+    private int touchedKey = -1;
+
+    /**
+     * @param context           The app's context
+     * @param materialScrollBar The scroll bar beside which the strip is placed
+     */
+    public QuickIndexStrip(Context context, MaterialScrollBar materialScrollBar) {
+        super(context);
+        this.materialScrollBar = materialScrollBar;
+        paint.setTextSize(Utils.getDP(11, this));
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setColor(materialScrollBar.handleColour);
+
+        int width = Utils.getDP(16, this);
+        ViewGroup parent = (ViewGroup) materialScrollBar.getParent();
+        if (parent instanceof RelativeLayout) {
+            RelativeLayout.LayoutParams layoutParams = new RelativeLayout.LayoutParams(width, ViewGroup.LayoutParams.MATCH_PARENT);
+            layoutParams.addRule(RelativeLayout.LEFT_OF, materialScrollBar.getId());
+            layoutParams.addRule(RelativeLayout.ALIGN_TOP, materialScrollBar.getId());
+            layoutParams.addRule(RelativeLayout.ALIGN_BOTTOM, materialScrollBar.getId());
+            parent.addView(this, layoutParams);
+        } else {
+            FrameLayout.LayoutParams layoutParams = new FrameLayout.LayoutParams(width, ViewGroup.LayoutParams.MATCH_PARENT);
+            layoutParams.gravity = Gravity.RIGHT;
+            layoutParams.rightMargin = materialScrollBar.getLayoutParams().width;
+            parent.addView(this, layoutParams);
+        }
+    }
+
+    /**
+     * Provides the ability to programmatically replace the keys shown, for instance with the
+     * alphabet of another language. Keys must be in the order of the adapter's elements.
+     *
+     * @param keys to show, from top to bottom.
+     */
+    public QuickIndexStrip setKeys(String[] keys) {
+        this.keys = keys.clone();
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Provides the ability to programmatically set the colour of the keys.
+     *
+     * @param colour to set the keys.
+     */
+    public QuickIndexStrip setTextColour(int colour) {
+        paint.setColor(colour);
+        invalidate();
+        return this;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (keys.length == 0) {
+            return;
+        }
+        float keyHeight = (float) getHeight() / keys.length;
+        float baselineOffset = keyHeight / 2F - (paint.ascent() + paint.descent()) / 2F;
+        float x = getWidth() / 2F;
+        for (int i = 0; i < keys.length; i++) {
+            canvas.drawText(keys[i], x, i * keyHeight + baselineOffset, paint);
+        }
+    }
+
+    @SuppressLint("ClickableViewAccessibility")
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_MOVE:
+                if (keys.length == 0) {
+                    return false;
+                }
+                int key = (int) (event.getY() / getHeight() * keys.length);
+                key = Math.max(0, Math.min(key, keys.length - 1));
+                if (key != touchedKey) {
+                    touchedKey = key;
+                    int position = materialScrollBar.findFirstPositionForKey(keys[key]);
+                    if (position >= 0) {
+                        materialScrollBar.jumpToPosition(position);
+                    }
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                touchedKey = -1;
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+}
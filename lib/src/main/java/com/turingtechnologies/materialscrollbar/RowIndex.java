@@ -0,0 +1,217 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * Maps adapter positions to rows for a GridLayoutManager whose SpanSizeLookup lets items take more
+ * than one span. The first position of every row is kept in a sorted array, so a position is
+ * turned into a row with a binary search. Adapter changes re-flow only the rows from the change
+ * onwards, and only until a re-flowed row starts where an old one did; the rows after it are kept,
+ * shifted by the number of items inserted or removed. A full width item, such as a header, always
+ * starts a row, so a change rarely re-flows past the next one.
+ */
+class RowIndex extends RecyclerView.AdapterDataObserver {
+
+    @SuppressWarnings("rawtypes")
+    final RecyclerView.Adapter adapter;
+    final GridLayoutManager.SpanSizeLookup lookup;
+    final int spanCount;
+
+    private int[] rowStarts = new int[64];
+    private int rowCount = 0;
+    //Number of leading adapter items which have been assigned a row.
+    private int indexedItems = 0;
+    //Spans already taken in the last indexed row.
+    private int lastRowSpans = 0;
+    //Starts of the rows after a change, in their old positions, while the change is re-flowed.
+    private int[] oldStarts = new int[0];
+
+    @SuppressWarnings("rawtypes")
+    RowIndex(RecyclerView.Adapter adapter, GridLayoutManager manager) {
+        this.adapter = adapter;
+        this.lookup = manager.getSpanSizeLookup();
+        this.spanCount = manager.getSpanCount();
+        adapter.registerAdapterDataObserver(this);
+    }
+
+    /**
+     * @return True if this index still describes the given adapter and layout manager.
+     */
+    @SuppressWarnings("rawtypes")
+    boolean matches(RecyclerView.Adapter adapter, GridLayoutManager manager) {
+        return this.adapter == adapter && lookup == manager.getSpanSizeLookup() && spanCount == manager.getSpanCount();
+    }
+
+    void release() {
+        adapter.unregisterAdapterDataObserver(this);
+    }
+
+    int getRowCount() {
+        ensureIndexed(adapter.getItemCount());
+        return rowCount;
+    }
+
+    /**
+     * @param position An adapter position.
+     * @return The row containing the position.
+     */
+    int getRowForPosition(int position) {
+        ensureIndexed(position + 1);
+        int row = Arrays.binarySearch(rowStarts, 0, rowCount, position);
+        return row >= 0 ? row : -row - 2;
+    }
+
+    /**
+     * @param row A row, clamped to the rows of the grid.
+     * @return The adapter position of the first item in the row.
+     */
+    int getFirstPositionInRow(int row) {
+        int count = getRowCount();
+        if (count == 0) {
+            return 0;
+        }
+        return rowStarts[Math.max(0, Math.min(row, count - 1))];
+    }
+
+    private void ensureIndexed(int itemCount) {
+        itemCount = Math.min(itemCount, adapter.getItemCount());
+        for (int position = indexedItems; position < itemCount; position++) {
+            place(position, getSpanSize(position));
+        }
+        indexedItems = Math.max(indexedItems, itemCount);
+    }
+
+    private int getSpanSize(int position) {
+        return Math.min(lookup.getSpanSize(position), spanCount);
+    }
+
+    private boolean startsRow(int spanSize) {
+        return rowCount == 0 || lastRowSpans + spanSize > spanCount;
+    }
+
+    private void place(int position, int spanSize) {
+        if (startsRow(spanSize)) {
+            if (rowCount == rowStarts.length) {
+                rowStarts = Arrays.copyOf(rowStarts, rowCount * 2);
+            }
+            rowStarts[rowCount++] = position;
+            lastRowSpans = spanSize;
+        } else {
+            lastRowSpans += spanSize;
+        }
+    }
+
+    /**
+     * Updates the rows after the items from position on were replaced by a different number of
+     * items. Rows are re-flowed from the one containing the position, counting the spans taken in
+     * the row before so a changed item joins it if it now fits. Once a re-flowed row past the change
+     * starts where an old row did, every row after it is unchanged but for the shift.
+     *
+     * @param oldCount Number of items replaced.
+     * @param newCount Number of items replacing them.
+     */
+    private void reflow(int position, int oldCount, int newCount) {
+        if (position >= indexedItems) {
+            return;
+        }
+        int delta = newCount - oldCount;
+        int row = Arrays.binarySearch(rowStarts, 0, rowCount, position);
+        row = Math.max(0, row >= 0 ? row : -row - 2);
+        int oldCountAfter = rowCount - row - 1;
+        if (oldStarts.length < oldCountAfter) {
+            oldStarts = new int[rowStarts.length];
+        }
+        System.arraycopy(rowStarts, row + 1, oldStarts, 0, oldCountAfter);
+        int oldLastRowSpans = lastRowSpans;
+        //Items indexed before the change stay indexed, unless the change reached past them.
+        int limit = indexedItems >= position + oldCount ? indexedItems + delta : position;
+        int changeEnd = position + newCount;
+
+        indexedItems = rowStarts[row];
+        rowCount = row;
+        lastRowSpans = 0;
+        if (row > 0) {
+            for (int i = rowStarts[row - 1]; i < indexedItems; i++) {
+                lastRowSpans += getSpanSize(i);
+            }
+        }
+        int next = 0;
+        for (int current = indexedItems; current < limit; current++) {
+            int spanSize = getSpanSize(current);
+            if (current >= changeEnd && startsRow(spanSize)) {
+                while (next < oldCountAfter && oldStarts[next] + delta < current) {
+                    next++;
+                }
+                if (next < oldCountAfter && oldStarts[next] + delta == current) {
+                    int count = rowCount + oldCountAfter - next;
+                    if (count > rowStarts.length) {
+                        rowStarts = Arrays.copyOf(rowStarts, Math.max(count, rowStarts.length * 2));
+                    }
+                    for (; next < oldCountAfter; next++) {
+                        rowStarts[rowCount++] = oldStarts[next] + delta;
+                    }
+                    lastRowSpans = oldLastRowSpans;
+                    break;
+                }
+            }
+            place(current, spanSize);
+        }
+        indexedItems = limit;
+    }
+
+    @Override
+    public void onChanged() {
+        rowCount = 0;
+        indexedItems = 0;
+        lastRowSpans = 0;
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        reflow(positionStart, itemCount, itemCount);
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        if (payload != MaterialScrollBar.PAYLOAD_FAST_SCROLL_SETTLED) {
+            reflow(positionStart, itemCount, itemCount);
+        }
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        reflow(positionStart, 0, itemCount);
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        reflow(positionStart, itemCount, 0);
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        //Only the items between the two positions change places.
+        int start = Math.min(fromPosition, toPosition);
+        int count = Math.max(fromPosition, toPosition) + itemCount - start;
+        reflow(start, count, count);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * An approximate section index for adapters too large to scan. Only every k-th label is read up
+ * front. Two neighbouring samples with the same label are taken to enclose a single section, which
+ * holds as long as the adapter is sorted by label. Where they differ, the label of a position asked
+ * for is read directly and kept, unless two labels already known on either side of it are the same.
+ * A lookup therefore reads at most one label, and the index grows more precise as the list is
+ * scrolled without ever reading every label.
+ */
+class SampledSectionIndex extends RecyclerView.AdapterDataObserver {
+
+    @SuppressWarnings("rawtypes")
+    final RecyclerView.Adapter adapter;
+    final Indicator indicator;
+    private final int interval;
+
+    private String[] samples;
+    private int itemCount;
+    //Positions read in each gap between two samples, sorted, with their labels; null until one is.
+    private int[][] gapPositions;
+    private String[][] gapLabels;
+    private int[] gapCounts;
+    private boolean stale = true;
+
+    @SuppressWarnings("rawtypes")
+    SampledSectionIndex(RecyclerView.Adapter adapter, Indicator indicator, int interval) {
+        this.adapter = adapter;
+        this.indicator = indicator;
+        this.interval = interval;
+        adapter.registerAdapterDataObserver(this);
+    }
+
+    void release() {
+        adapter.unregisterAdapterDataObserver(this);
+    }
+
+    /**
+     * @return The label of the section holding the position, reading at most one label from the
+     * adapter.
+     */
+    String getLabel(int position) {
+        ensureSampled();
+        if (itemCount == 0) {
+            return null;
+        }
+        position = Math.max(0, Math.min(position, itemCount - 1));
+        int gap = Math.min(position / interval, samples.length - 2);
+        if (gap < 0 || position == gap * interval) {
+            return samples[Math.max(0, gap)];
+        }
+        if (position == samplePosition(gap + 1)) {
+            return samples[gap + 1];
+        }
+        if (equal(samples[gap], samples[gap + 1])) {
+            return samples[gap];
+        }
+        int count = gapCounts[gap];
+        int found = count == 0 ? -1 : Arrays.binarySearch(gapPositions[gap], 0, count, position);
+        if (found >= 0) {
+            return gapLabels[gap][found];
+        }
+        int insert = -found - 1;
+        String before = insert == 0 ? samples[gap] : gapLabels[gap][insert - 1];
+        String after = insert == count ? samples[gap + 1] : gapLabels[gap][insert];
+        if (equal(before, after)) {
+            return before;
+        }
+        String label = label(position);
+        remember(gap, insert, position, label);
+        return label;
+    }
+
+    private void ensureSampled() {
+        if (!stale) {
+            return;
+        }
+        itemCount = adapter.getItemCount();
+        int count = itemCount == 0 ? 0 : (itemCount - 1 + interval - 1) / interval + 1;
+        samples = new String[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = label(samplePosition(i));
+        }
+        gapPositions = new int[Math.max(0, count - 1)][];
+        gapLabels = new String[gapPositions.length][];
+        gapCounts = new int[gapPositions.length];
+        stale = false;
+    }
+
+    private int samplePosition(int sample) {
+        return Math.min(sample * interval, itemCount - 1);
+    }
+
+    private void remember(int gap, int insert, int position, String label) {
+        int count = gapCounts[gap];
+        int[] positions = gapPositions[gap];
+        String[] labels = gapLabels[gap];
+        if (positions == null) {
+            positions = new int[4];
+            labels = new String[4];
+        } else if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+            labels = Arrays.copyOf(labels, count * 2);
+        }
+        System.arraycopy(positions, insert, positions, insert + 1, count - insert);
+        System.arraycopy(labels, insert, labels, insert + 1, count - insert);
+        positions[insert] = position;
+        labels[insert] = label;
+        gapPositions[gap] = positions;
+        gapLabels[gap] = labels;
+        gapCounts[gap] = count + 1;
+    }
+
+    private String label(int position) {
+        return indicator.getSectionLabel(position, adapter);
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    @Override
+    public void onChanged() {
+        stale = true;
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        stale = true;
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        //Partial rebinds do not change labels.
+        if (payload == null) {
+            stale = true;
+        }
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        stale = true;
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        stale = true;
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        stale = true;
+    }
+}
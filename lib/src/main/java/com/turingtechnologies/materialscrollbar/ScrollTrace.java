@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Named sections and counters for system traces, so the bar's work shows up on its own in Perfetto
+ * or systrace. Callers check {@link #enabled} before calling in, which keeps a disabled trace down
+ * to a single static field read. Counters need API 29 and are dropped on older devices.
+ */
+class ScrollTrace {
+
+    static final String ON_SCROLLED = "MSB onScrolled";
+    static final String ON_FRAME = "MSB onFrame";
+    static final String SCROLL_PROGRESS = "MSB calculateScrollProgress";
+    static final String TEXT_ELEMENT = "MSB getTextElement";
+    static final String TOUCH = "MSB onTouch";
+    static final String FADE_IN = "MSB fadeIn";
+    static final String FADE_OUT = "MSB fadeOut";
+    static final String BUILD_SECTION_INDEX = "MSB buildSectionIndex";
+    static final String COUNTER_TARGET = "MSB fast scroll target";
+    static final String COUNTER_LABEL_HIT_RATE = "MSB label cache hit %";
+
+    static boolean enabled = false;
+
+    private ScrollTrace() {
+    }
+
+    static void begin(String section) {
+        Trace.beginSection(section);
+    }
+
+    static void end() {
+        Trace.endSection();
+    }
+
+    static void counter(String name, long value) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.setCounter(name, value);
+        }
+    }
+}
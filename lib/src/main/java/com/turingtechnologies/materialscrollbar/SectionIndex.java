@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The sections of an adapter: the first position of each run of items sharing a label, in
+ * ascending order, together with that label. Either built in memory or read straight from a
+ * memory-mapped cache file, in which case labels are only decoded when first asked for.
+ */
+class SectionIndex {
+
+    private final IntBuffer starts;
+    private final String[] labels;
+    //UTF-8 labels and their offsets, only for an index read from a cache file.
+    private final ByteBuffer labelData;
+    private final IntBuffer labelOffsets;
+    //Told once that a label offset of a cache file is out of range.
+    private Runnable onCorrupt;
+    private final int count;
+    private final int itemCount;
+    //Sections ordered by label, the earlier section first on equal labels, once a label is searched.
+    private int[] byLabel;
+
+    SectionIndex(int[] starts, String[] labels, int count, int itemCount) {
+        this.starts = IntBuffer.wrap(starts, 0, count);
+        this.labels = labels;
+        this.labelData = null;
+        this.labelOffsets = null;
+        this.count = count;
+        this.itemCount = itemCount;
+    }
+
+    SectionIndex(IntBuffer starts, IntBuffer labelOffsets, ByteBuffer labelData, int count, int itemCount, Runnable onCorrupt) {
+        this.starts = starts;
+        this.labels = new String[count];
+        this.labelData = labelData;
+        this.labelOffsets = labelOffsets;
+        this.onCorrupt = onCorrupt;
+        this.count = count;
+        this.itemCount = itemCount;
+    }
+
+    /**
+     * Collects sections one item at a time; consecutive items with an equal label share a section.
+     */
+    static class Builder {
+
+        private int[] starts = new int[32];
+        private String[] labels = new String[32];
+        private int count = 0;
+        private String lastLabel;
+
+        /**
+         * @param position The next position, greater than any position added before.
+         * @param label    The label of the position, or null if it continues the current section.
+         */
+        void add(int position, String label) {
+            if (label == null || (count > 0 && label.equals(lastLabel))) {
+                return;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                labels = Arrays.copyOf(labels, count * 2);
+            }
+            starts[count] = position;
+            labels[count] = label;
+            lastLabel = label;
+            count++;
+        }
+
+        SectionIndex build(int itemCount) {
+            return new SectionIndex(starts, labels, count, itemCount);
+        }
+    }
+
+    int getSectionCount() {
+        return count;
+    }
+
+    /**
+     * @return The number of adapter items the index was built from.
+     */
+    int getItemCount() {
+        return itemCount;
+    }
+
+    int getSectionStart(int section) {
+        return starts.get(section);
+    }
+
+    String getSectionLabel(int section) {
+        String label = labels[section];
+        if (label == null && labelData != null) {
+            int start = labelOffsets.get(section);
+            int end = labelOffsets.get(section + 1);
+            if (start < 0 || end < start || end > labelData.capacity()) {
+                //Only the header of a cache file is checked when it is loaded.
+                if (onCorrupt != null) {
+                    onCorrupt.run();
+                    onCorrupt = null;
+                }
+                label = "";
+            } else {
+                byte[] bytes = new byte[end - start];
+                ByteBuffer data = labelData.duplicate();
+                data.position(start);
+                data.get(bytes);
+                label = new String(bytes, StandardCharsets.UTF_8);
+            }
+            labels[section] = label;
+        }
+        return label;
+    }
+
+    /**
+     * Searches the sections by label with a binary search. The order it searches is sorted the
+     * first time, as labels need not sort in adapter order, such as dates.
+     *
+     * @return The first section with the label, or -1 if there is none.
+     */
+    int findSection(String label) {
+        if (byLabel == null) {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            //A stable sort, so equal labels stay in adapter order.
+            Arrays.sort(order, (a, b) -> getSectionLabel(a).compareTo(getSectionLabel(b)));
+            byLabel = new int[count];
+            for (int i = 0; i < count; i++) {
+                byLabel[i] = order[i];
+            }
+        }
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getSectionLabel(byLabel[mid]).compareTo(label) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < count && getSectionLabel(byLabel[low]).equals(label) ? byLabel[low] : -1;
+    }
+
+    /**
+     * @return The section containing the position, or -1 if it precedes the first section.
+     */
+    int getSectionForPosition(int position) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int start = starts.get(mid);
+            if (start < position) {
+                low = mid + 1;
+            } else if (start > position) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return low - 1;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stores a SectionIndex in a compact binary file and maps it back into memory, so an unchanged
+ * dataset has its sections available immediately without scanning the adapter. All values are big
+ * endian:
+ * <pre>
+ * int     magic
+ * int     format version
+ * long    adapter index version
+ * int     item count
+ * int     section count (n)
+ * int     label data length
+ * int[n]  section starts
+ * int[n+1] label offsets into the label data
+ * byte[]  UTF-8 label data
+ * </pre>
+ * Loading only checks the header against the length of the file, so it takes the same time however
+ * many sections there are; label offsets are checked when a label is decoded.
+ */
+class SectionIndexCache {
+
+    private static final String TAG = "MaterialScrollBar";
+    private static final int MAGIC = 0x4D534249;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 4;
+
+    //Shared by every cache so that writes never overlap.
+    private static ExecutorService writeExecutor;
+
+    private final File file;
+
+    SectionIndexCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * A file whose length does not match its header is discarded here; a label offset out of range
+     * discards the file when that label is decoded.
+     *
+     * @return The cached index if it was written for the same version and item count, otherwise null.
+     */
+    SectionIndex load(long version, int itemCount) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            //The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                    || buffer.getLong(8) != version || buffer.getInt(16) != itemCount) {
+                return null;
+            }
+            int count = buffer.getInt(20);
+            int dataLength = buffer.getInt(24);
+            //Compared as longs, which a corrupt count or length cannot overflow.
+            if (count < 0 || dataLength < 0 || HEADER_SIZE + count * 8L + 4 + dataLength != buffer.capacity()) {
+                return discard("length does not match " + count + " sections and " + dataLength + " bytes of labels");
+            }
+            int startsAt = HEADER_SIZE;
+            int offsetsAt = startsAt + count * 4;
+            int dataAt = offsetsAt + (count + 1) * 4;
+            IntBuffer starts = slice(buffer, startsAt, count * 4).asIntBuffer();
+            IntBuffer offsets = slice(buffer, offsetsAt, (count + 1) * 4).asIntBuffer();
+            ByteBuffer labelData = slice(buffer, dataAt, dataLength);
+            return new SectionIndex(starts, offsets, labelData, count, itemCount, this::discardCorrupt);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read section index cache " + file, e);
+            return null;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Discarding corrupt section index cache " + file, e);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return null;
+        }
+    }
+
+    private void discardCorrupt() {
+        discard("bad label offset");
+    }
+
+    private SectionIndex discard(String reason) {
+        Log.w(TAG, "Discarding corrupt section index cache " + file + ": " + reason);
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+        return null;
+    }
+
+    /**
+     * Writes the index on a background thread, one write at a time. Each write goes to a temporary
+     * file of its own which then atomically replaces the cache, so a reader never sees a partial
+     * file.
+     */
+    void saveAsync(final SectionIndex index, final long version) {
+        getWriteExecutor().execute(() -> save(index, version));
+    }
+
+    private static synchronized ExecutorService getWriteExecutor() {
+        if (writeExecutor == null) {
+            writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "Section Index Writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writeExecutor;
+    }
+
+    private void save(SectionIndex index, long version) {
+        File directory = file.getParentFile();
+        File temp = null;
+        try {
+            if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory);
+            }
+            temp = File.createTempFile(file.getName(), ".tmp", directory);
+            int count = index.getSectionCount();
+            byte[][] labels = new byte[count][];
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(version);
+                out.writeInt(index.getItemCount());
+                out.writeInt(count);
+                int dataLength = 0;
+                for (int i = 0; i < count; i++) {
+                    labels[i] = index.getSectionLabel(i).getBytes(StandardCharsets.UTF_8);
+                    dataLength += labels[i].length;
+                }
+                out.writeInt(dataLength);
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(index.getSectionStart(i));
+                }
+                int offset = 0;
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(offset);
+                    offset += labels[i].length;
+                }
+                out.writeInt(offset);
+                for (byte[] label : labels) {
+                    out.write(label);
+                }
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write section index cache " + file, e);
+            if (temp != null) {
+                //noinspection ResultOfMethodCallIgnored
+                temp.delete();
+            }
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice();
+    }
+}
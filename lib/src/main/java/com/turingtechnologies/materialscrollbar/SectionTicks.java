@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.view.View;
+
+/**
+ * Draws a mark beside the track for every section of a {@link SectionIndex}, with the section label
+ * where it fits in the column the bar adds for labels. Sections closer together than a line of text
+ * are merged into the first of them. The marks are only recomputed when the size, the geometry or
+ * the index changes; drawing is a single pass over the precomputed arrays.
+ */
+@SuppressLint("ViewConstructor")
+class SectionTicks extends View {
+
+    private final Paint tickPaint = new Paint();
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private int tickLength;
+    private int trackWidth;
+
+    private SectionIndex index;
+    private int handleHeight;
+
+    private float[] tickYs = new float[0];
+    private String[] tickLabels = new String[0];
+    private int tickCount = 0;
+
+    SectionTicks(Context context, Geometry geometry) {
+        super(context);
+        textPaint.setTextAlign(Paint.Align.RIGHT);
+        setGeometry(geometry);
+    }
+
+    /**
+     * Takes the track width and the size of the marks from a new geometry, after the track width or
+     * the density changed.
+     */
+    void setGeometry(Geometry geometry) {
+        trackWidth = geometry.trackWidth;
+        tickLength = geometry.tickLength;
+        tickPaint.setStrokeWidth(geometry.tickStroke);
+        textPaint.setTextSize(geometry.tickTextSize);
+        computeTicks();
+        invalidate();
+    }
+
+    void setColour(int colour) {
+        tickPaint.setColor(colour);
+        textPaint.setColor(colour);
+        invalidate();
+    }
+
+    /**
+     * @param index        The sections to mark, or null to clear the marks.
+     * @param handleHeight Height of the handle, so marks line up with the centre of the handle.
+     */
+    void setSectionIndex(SectionIndex index, int handleHeight) {
+        this.index = index;
+        this.handleHeight = handleHeight;
+        computeTicks();
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        computeTicks();
+    }
+
+    private void computeTicks() {
+        tickCount = 0;
+        if (index == null || index.getItemCount() == 0 || getHeight() == 0) {
+            return;
+        }
+        int sections = index.getSectionCount();
+        if (tickYs.length < sections) {
+            tickYs = new float[sections];
+            tickLabels = new String[sections];
+        }
+        float minGap = textPaint.getTextSize() * 1.2F;
+        float available = getWidth() - trackWidth - tickLength - tickLength / 2F;
+        float range = getHeight() - handleHeight;
+        float lastY = -minGap;
+        for (int i = 0; i < sections; i++) {
+            float y = (float) index.getSectionStart(i) / index.getItemCount() * range + handleHeight / 2F;
+            if (y - lastY < minGap) {
+                continue;
+            }
+            String label = index.getSectionLabel(i);
+            tickYs[tickCount] = y;
+            tickLabels[tickCount] = textPaint.measureText(label) <= available ? label : null;
+            tickCount++;
+            lastY = y;
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        float right = getWidth() - trackWidth;
+        float textRight = right - tickLength - tickLength / 2F;
+        float baselineOffset = -(textPaint.ascent() + textPaint.descent()) / 2F;
+        for (int i = 0; i < tickCount; i++) {
+            canvas.drawLine(right - tickLength, tickYs[i], right, tickYs[i], tickPaint);
+            if (tickLabels[i] != null) {
+                canvas.drawText(tickLabels[i], textRight, tickYs[i] + baselineOffset, textPaint);
+            }
+        }
+    }
+}
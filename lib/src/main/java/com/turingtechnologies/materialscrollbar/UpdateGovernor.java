@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+/**
+ * Decides how often the indicator label is recomputed while scrolling. The handle is always moved
+ * on every frame; only label computation is throttled according to scroll velocity and the cost of
+ * recent frames. Falls back to a reduced-work profile on low RAM devices or when the bar's own work
+ * keeps overrunning its share of the frame budget.
+ */
+class UpdateGovernor {
+
+    private static final long NANOS_PER_MS = 1000000L;
+    private static final long FRAME_BUDGET_NANOS = 16666667L;
+    //The bar's share of a frame; RecyclerView needs the rest for layout and drawing.
+    private static final long WORK_BUDGET_NANOS = FRAME_BUDGET_NANOS / 4;
+    //Intervals longer than this are pauses in the scroll, which reset the velocity.
+    private static final long MAX_FRAME_NANOS = 100 * NANOS_PER_MS;
+    //Number of the last eight frames which must overrun before switching to the reduced profile.
+    private static final int OVERRUN_LIMIT = 3;
+    //Beyond this many items per second a label is gone before it can be read.
+    private static final float FAST_ITEMS_PER_SECOND = 200F;
+    private static final long FAST_LABEL_INTERVAL_NANOS = 80 * NANOS_PER_MS;
+    private static final long REDUCED_LABEL_INTERVAL_NANOS = 120 * NANOS_PER_MS;
+    private static final long REDUCED_FAST_LABEL_INTERVAL_NANOS = 200 * NANOS_PER_MS;
+
+    private final boolean lowRamDevice;
+    private boolean forceReduced = false;
+
+    private int overrunHistory;
+    private long lastFrameNanos;
+    private int lastPosition = -1;
+    private float itemsPerSecond;
+
+    private int labelPosition = -1;
+    private long labelNanos;
+
+    UpdateGovernor(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        lowRamDevice = activityManager != null && activityManager.isLowRamDevice();
+    }
+
+    void setForceReduced(boolean forceReduced) {
+        this.forceReduced = forceReduced;
+    }
+
+    /**
+     * @return True if fewer labels should be computed and animations skipped.
+     */
+    boolean isReducedProfile() {
+        return forceReduced || lowRamDevice || Integer.bitCount(overrunHistory & 0xFF) >= OVERRUN_LIMIT;
+    }
+
+    /**
+     * Records a scroll frame so that velocity can be tracked. The time between two scroll frames says
+     * nothing about their cost, since the list may simply not have moved in between.
+     *
+     * @param position  The adapter position the scroll has reached.
+     * @param nowNanos  The current time from {@link System#nanoTime()}.
+     */
+    void onFrame(int position, long nowNanos) {
+        long interval = nowNanos - lastFrameNanos;
+        if (lastFrameNanos != 0 && interval < MAX_FRAME_NANOS) {
+            if (lastPosition >= 0 && interval > 0) {
+                float instant = Math.abs(position - lastPosition) * 1e9F / interval;
+                //Smooth over a few frames so a single jump does not throttle the label.
+                itemsPerSecond = itemsPerSecond * 0.7F + instant * 0.3F;
+            }
+        } else {
+            itemsPerSecond = 0;
+        }
+        lastFrameNanos = nowNanos;
+        lastPosition = position;
+    }
+
+    /**
+     * Records how long the bar's own work took during a scroll frame.
+     *
+     * @param costNanos Time spent updating the handle and label.
+     */
+    void onFrameCost(long costNanos) {
+        overrunHistory = (overrunHistory << 1) | (costNanos > WORK_BUDGET_NANOS ? 1 : 0);
+    }
+
+    /**
+     * @return The delay in nanoseconds before a label for the given position may be computed, zero
+     * if it can be computed now, or -1 if the label already shows this position.
+     */
+    long labelDelay(int position, long nowNanos) {
+        if (position == labelPosition) {
+            return -1;
+        }
+        long interval;
+        boolean fast = itemsPerSecond > FAST_ITEMS_PER_SECOND;
+        if (isReducedProfile()) {
+            interval = fast ? REDUCED_FAST_LABEL_INTERVAL_NANOS : REDUCED_LABEL_INTERVAL_NANOS;
+        } else {
+            interval = fast ? FAST_LABEL_INTERVAL_NANOS : 0;
+        }
+        return Math.max(0, labelNanos + interval - nowNanos);
+    }
+
+    void onLabelComputed(int position, long nowNanos) {
+        labelPosition = position;
+        labelNanos = nowNanos;
+    }
+
+    /**
+     * Forgets the last label, for instance after the adapter or indicator changed.
+     */
+    void invalidateLabel() {
+        labelPosition = -1;
+    }
+
+    /**
+     * Called once scrolling stops so the next gesture starts with fresh velocity and frame history.
+     */
+    void onIdle() {
+        overrunHistory = 0;
+        lastFrameNanos = 0;
+        lastPosition = -1;
+        itemsPerSecond = 0;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the buckets characters fall into, with and without AlphabeticIndex.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class AlphabetBucketsTest {
+
+    @Test
+    public void accentedLettersShareTheirBaseLetter() {
+        AlphabetBuckets buckets = new AlphabetBuckets(Locale.ENGLISH);
+        assertEquals("A", buckets.getLabel('a'));
+        assertEquals("E", buckets.getLabel('é'));
+        assertEquals("Z", buckets.getLabel('Z'));
+    }
+
+    @Test
+    public void digitsAndSymbolsShareOtherBucket() {
+        AlphabetBuckets buckets = new AlphabetBuckets(Locale.ENGLISH);
+        assertEquals("#", buckets.getLabel('7'));
+        assertEquals("#", buckets.getLabel('0'));
+        assertEquals("#", buckets.getLabel('&'));
+    }
+
+    @Test
+    public void otherScriptsKeepTheirBuckets() {
+        AlphabetBuckets buckets = new AlphabetBuckets(Locale.ENGLISH);
+        assertEquals("Б", buckets.getLabel('б'));
+        assertEquals("Ω", buckets.getLabel('ω'));
+    }
+
+    @Test
+    @Config(sdk = 23)
+    public void upperCasesBelowApi24() {
+        AlphabetBuckets buckets = new AlphabetBuckets(Locale.ENGLISH);
+        assertEquals("A", buckets.getLabel('a'));
+        assertEquals("É", buckets.getLabel('é'));
+        assertEquals("7", buckets.getLabel('7'));
+    }
+}
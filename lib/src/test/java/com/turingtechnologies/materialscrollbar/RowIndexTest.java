@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the rows kept by a {@link RowIndex} after an adapter change match the rows of an index
+ * built from scratch.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RowIndexTest {
+
+    private static final int SPAN_COUNT = 3;
+
+    private SpanAdapter adapter;
+    private RowIndex rowIndex;
+
+    @Before
+    public void setUp() {
+        adapter = new SpanAdapter();
+        GridLayoutManager manager = new GridLayoutManager(RuntimeEnvironment.application, SPAN_COUNT);
+        manager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                adapter.calls++;
+                return adapter.spans.get(position);
+            }
+        });
+        rowIndex = new RowIndex(adapter, manager);
+    }
+
+    @Test
+    public void changeKeepsUniformRows() {
+        adapter.add(0, 30, 1);
+        assertRows();
+        adapter.notifyItemChanged(20);
+        assertRows();
+    }
+
+    @Test
+    public void changedSpanMovesLaterRows() {
+        adapter.add(0, 30, 1);
+        assertRows();
+        adapter.spans.set(20, 2);
+        adapter.notifyItemChanged(20);
+        assertRows();
+        adapter.spans.set(20, 1);
+        adapter.notifyItemChanged(20);
+        assertRows();
+    }
+
+    @Test
+    public void insertAndRemoveKeepRows() {
+        adapter.add(0, 30, 1);
+        assertRows();
+        adapter.add(13, 2, 2);
+        assertRows();
+        adapter.add(32, 4, 1);
+        assertRows();
+        adapter.remove(5, 3);
+        assertRows();
+        adapter.remove(0, 1);
+        assertRows();
+    }
+
+    @Test
+    public void partialIndexIsExtendedAfterChange() {
+        adapter.add(0, 30, 1);
+        assertEquals(6, rowIndex.getRowForPosition(19));
+        adapter.notifyItemChanged(10);
+        assertRows();
+    }
+
+    @Test
+    public void insertAfterChangeJoinsOpenRow() {
+        adapter.add(0, 1, 1);
+        adapter.add(1, 4, 3);
+        assertEquals(2, rowIndex.getRowForPosition(2));
+        adapter.spans.set(2, 1);
+        adapter.notifyItemChanged(2);
+        adapter.add(1, 1, 2);
+        assertRows();
+    }
+
+    @Test
+    public void moveKeepsRows() {
+        adapter.add(0, 30, 1);
+        adapter.spans.set(4, 2);
+        adapter.notifyItemChanged(4);
+        assertRows();
+        adapter.spans.add(20, adapter.spans.remove(4));
+        adapter.notifyItemMoved(4, 20);
+        assertRows();
+    }
+
+    @Test
+    public void headerStopsReflow() {
+        for (int i = 0; i < 10; i++) {
+            adapter.add(adapter.spans.size(), 1, SPAN_COUNT);
+            adapter.add(adapter.spans.size(), 7, 1);
+        }
+        assertRows();
+        adapter.calls = 0;
+        adapter.add(1, 1, 1);
+        //The rows of the first section, not those after the next header.
+        assertTrue(adapter.calls <= 2 * SPAN_COUNT + 8);
+        assertRows();
+    }
+
+    private void assertRows() {
+        List<Integer> expected = buildRows(adapter.spans);
+        assertEquals(expected.size(), rowIndex.getRowCount());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals("row " + row, (int) expected.get(row), rowIndex.getFirstPositionInRow(row));
+        }
+        for (int position = 0; position < adapter.spans.size(); position++) {
+            int row = Collections.binarySearch(expected, position);
+            assertEquals("position " + position, row >= 0 ? row : -row - 2, rowIndex.getRowForPosition(position));
+        }
+    }
+
+    private static List<Integer> buildRows(List<Integer> spans) {
+        List<Integer> rows = new ArrayList<>();
+        int taken = SPAN_COUNT;
+        for (int position = 0; position < spans.size(); position++) {
+            int span = spans.get(position);
+            if (taken + span > SPAN_COUNT) {
+                rows.add(position);
+                taken = 0;
+            }
+            taken += span;
+        }
+        return rows;
+    }
+
+    static class SpanAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        final List<Integer> spans = new ArrayList<>();
+        int calls;
+
+        void add(int position, int count, int span) {
+            for (int i = 0; i < count; i++) {
+                spans.add(position, span);
+            }
+            notifyItemRangeInserted(position, count);
+        }
+
+        void remove(int position, int count) {
+            spans.subList(position, position + count).clear();
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new RecyclerView.ViewHolder(new View(parent.getContext())) {};
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {}
+
+        @Override
+        public int getItemCount() {
+            return spans.size();
+        }
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.RelativeLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Replays a recorded scroll trace through a MaterialScrollBar attached to a fake RecyclerView and
+ * counts the work the bar causes on each simulated frame.
+ * <p>
+ * Trace files live in src/test/resources/traces and contain one directive per line:
+ * <ul>
+ * <li>{@code budget <metric> <max>} - fails the run if the per-frame maximum of a metric exceeds max.</li>
+ * <li>{@code down|move|up <fraction>} - one touch event on the bar at a fraction of its height.</li>
+ * <li>{@code drag <from> <to> <frames>} - evenly spaced move events, one per frame.</li>
+ * <li>{@code scroll <dy> <frames>} - scrolls the list by dy pixels on each frame.</li>
+ * <li>{@code fling <velocity>} - flings the list and runs frames until it comes to rest.</li>
+ * <li>{@code idle <frames>} - runs frames without input.</li>
+ * </ul>
+ * Allocations are only counted on JVMs which count them per thread, such as HotSpot; elsewhere
+ * they are reported as not measured and their budget is not checked.
+ */
+class ScrollReplayHarness {
+
+    static final String[] METRICS = {"labelCalls", "scrollToPosition", "setText", "requestLayout", "allocatedBytes"};
+
+    private static final long FRAME_MS = 16;
+    private static final int ITEM_COUNT = 20000;
+    private static final int MAX_FLING_FRAMES = 600;
+
+    //Index of allocatedBytes in METRICS.
+    private static final int ALLOCATED_BYTES = 4;
+    //Null if the JVM does not count allocations per thread.
+    private static final Method THREAD_ALLOCATED_BYTES = findThreadAllocatedBytes();
+
+    private final String traceName;
+    private final Map<String, Long> budgets = new LinkedHashMap<>();
+    private final List<long[]> frames = new ArrayList<>();
+
+    private CountingRecyclerView recyclerView;
+    private CountingAdapter adapter;
+    private CountingIndicator indicator;
+    private MaterialScrollBar scrollBar;
+    private int setTextCalls;
+    private long downTime;
+
+    ScrollReplayHarness(String traceName) {
+        this.traceName = traceName;
+    }
+
+    /**
+     * Builds the view hierarchy inside the given activity and replays the trace.
+     */
+    void replay(Activity activity) throws IOException {
+        RelativeLayout root = new RelativeLayout(activity);
+        recyclerView = new CountingRecyclerView(activity);
+        recyclerView.setId(View.generateViewId());
+        recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        adapter = new CountingAdapter();
+        recyclerView.setAdapter(adapter);
+        root.addView(recyclerView, new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        activity.setContentView(root);
+
+        indicator = new CountingIndicator(activity);
+        scrollBar = new MaterialScrollBar(activity, recyclerView, true).addIndicator(indicator);
+        indicator.textView.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                setTextCalls++;
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {}
+        });
+        runFrames(4);
+        resetCounters();
+
+        for (String line : readTrace()) {
+            String[] args = line.split("\\s+");
+            switch (args[0]) {
+                case "budget":
+                    budgets.put(args[1], Long.parseLong(args[2]));
+                    break;
+                case "down":
+                    downTime = SystemClock.uptimeMillis();
+                    frame(() -> touch(MotionEvent.ACTION_DOWN, Float.parseFloat(args[1])));
+                    break;
+                case "move":
+                    frame(() -> touch(MotionEvent.ACTION_MOVE, Float.parseFloat(args[1])));
+                    break;
+                case "up":
+                    frame(() -> touch(MotionEvent.ACTION_UP, Float.parseFloat(args[1])));
+                    break;
+                case "drag":
+                    float from = Float.parseFloat(args[1]);
+                    float to = Float.parseFloat(args[2]);
+                    int steps = Integer.parseInt(args[3]);
+                    for (int i = 1; i <= steps; i++) {
+                        float fraction = from + (to - from) * i / steps;
+                        frame(() -> touch(MotionEvent.ACTION_MOVE, fraction));
+                    }
+                    break;
+                case "scroll":
+                    int dy = Integer.parseInt(args[1]);
+                    int count = Integer.parseInt(args[2]);
+                    for (int i = 0; i < count; i++) {
+                        frame(() -> recyclerView.scrollBy(0, dy));
+                    }
+                    break;
+                case "fling":
+                    int velocity = Integer.parseInt(args[1]);
+                    frame(() -> recyclerView.fling(0, velocity));
+                    for (int i = 0; i < MAX_FLING_FRAMES && recyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE; i++) {
+                        frame(null);
+                    }
+                    break;
+                case "idle":
+                    int idle = Integer.parseInt(args[1]);
+                    for (int i = 0; i < idle; i++) {
+                        frame(null);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown directive in " + traceName + ": " + line);
+            }
+        }
+    }
+
+    /**
+     * @return The per-frame maximum of each metric, in the order of {@link #METRICS}.
+     */
+    long[] maxPerFrame() {
+        long[] max = new long[METRICS.length];
+        for (long[] frame : frames) {
+            for (int i = 0; i < METRICS.length; i++) {
+                max[i] = Math.max(max[i], frame[i]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return A description of every budget that was exceeded, or an empty list.
+     */
+    List<String> budgetViolations() {
+        List<String> violations = new ArrayList<>();
+        long[] max = maxPerFrame();
+        for (int i = 0; i < METRICS.length; i++) {
+            if (i == ALLOCATED_BYTES && !isAllocationMeasured()) {
+                continue;
+            }
+            Long budget = budgets.get(METRICS[i] + "PerFrame");
+            if (budget != null && max[i] > budget) {
+                violations.add(traceName + ": " + METRICS[i] + " peaked at " + max[i] + " per frame, budget is " + budget);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Writes a JSON report for this run into the given directory.
+     */
+    File writeReport(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        long[] max = maxPerFrame();
+        long[] total = new long[METRICS.length];
+        for (long[] frame : frames) {
+            for (int i = 0; i < METRICS.length; i++) {
+                total[i] += frame[i];
+            }
+        }
+        File report = new File(directory, traceName + ".json");
+        try (Writer writer = new FileWriter(report)) {
+            writer.write("{\n  \"trace\": \"" + traceName + "\",\n  \"frames\": " + frames.size() + ",\n  \"metrics\": {\n");
+            for (int i = 0; i < METRICS.length; i++) {
+                Long budget = budgets.get(METRICS[i] + "PerFrame");
+                if (i == ALLOCATED_BYTES && !isAllocationMeasured()) {
+                    writer.write("    \"" + METRICS[i] + "\": {\"measured\": false}" + (i == METRICS.length - 1 ? "\n" : ",\n"));
+                    continue;
+                }
+                writer.write("    \"" + METRICS[i] + "\": {\"total\": " + total[i] + ", \"maxPerFrame\": " + max[i]
+                        + ", \"budgetPerFrame\": " + (budget == null ? "null" : budget)
+                        + ", \"withinBudget\": " + (budget == null || max[i] <= budget) + "}"
+                        + (i == METRICS.length - 1 ? "\n" : ",\n"));
+            }
+            writer.write("  }\n}\n");
+        }
+        return report;
+    }
+
+    /**
+     * @return False if the JVM cannot count allocations, in which case every frame reports none.
+     */
+    static boolean isAllocationMeasured() {
+        return THREAD_ALLOCATED_BYTES != null;
+    }
+
+    private static Method findThreadAllocatedBytes() {
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            Object threads = ManagementFactory.getThreadMXBean();
+            if (!type.isInstance(threads) || !(Boolean) type.getMethod("isThreadAllocatedMemoryEnabled").invoke(threads)) {
+                return null;
+            }
+            return type.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (THREAD_ALLOCATED_BYTES == null) {
+            return 0;
+        }
+        try {
+            return (Long) THREAD_ALLOCATED_BYTES.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<String> readTrace() throws IOException {
+        List<String> lines = new ArrayList<>();
+        InputStream in = getClass().getClassLoader().getResourceAsStream("traces/" + traceName + ".trace");
+        if (in == null) {
+            throw new IOException("Missing trace " + traceName);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    private void touch(int action, float fraction) {
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action,
+                scrollBar.getWidth() / 2F, fraction * scrollBar.getHeight(), 0);
+        scrollBar.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * Runs the input for one frame, then advances the main looper by one frame interval so that
+     * posted work and animations are included in the frame's cost.
+     */
+    private void frame(Runnable input) {
+        resetCounters();
+        long allocatedBefore = allocatedBytes();
+        if (input != null) {
+            input.run();
+        }
+        runFrames(1);
+        long allocated = allocatedBytes() - allocatedBefore;
+        frames.add(new long[]{adapter.labelCalls, recyclerView.scrollToPositionCalls, setTextCalls, indicator.requestLayoutCalls, allocated});
+    }
+
+    private void runFrames(int count) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(FRAME_MS * count));
+    }
+
+    private void resetCounters() {
+        adapter.labelCalls = 0;
+        recyclerView.scrollToPositionCalls = 0;
+        indicator.requestLayoutCalls = 0;
+        setTextCalls = 0;
+    }
+
+    static class CountingRecyclerView extends RecyclerView {
+
+        int scrollToPositionCalls;
+
+        CountingRecyclerView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void scrollToPosition(int position) {
+            scrollToPositionCalls++;
+            super.scrollToPosition(position);
+        }
+    }
+
+    static class CountingIndicator extends CustomIndicator {
+
+        int requestLayoutCalls;
+
+        CountingIndicator(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            requestLayoutCalls++;
+            super.requestLayout();
+        }
+    }
+
+    static class CountingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements INameableAdapter, ICustomAdapter {
+
+        int labelCalls;
+
+        @Override
+        public Character getCharacterForElement(int element) {
+            labelCalls++;
+            return (char) ('A' + element * 26 / ITEM_COUNT);
+        }
+
+        @Override
+        public String getCustomStringForElement(int element) {
+            labelCalls++;
+            return (char) ('A' + element * 26 / ITEM_COUNT) + " item " + element;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            TextView view = new TextView(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 48));
+            return new RecyclerView.ViewHolder(view) {};
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            ((TextView) holder.itemView).setText(String.valueOf(position));
+        }
+
+        @Override
+        public int getItemCount() {
+            return ITEM_COUNT;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2015, Turing Technologies, an unincorporated organisation of Wynne Plaga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.turingtechnologies.materialscrollbar;
+
+import android.app.Activity;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays the recorded traces and fails the build when a per-frame budget is exceeded. Reports are
+ * written to build/reports/scroll-replay.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ScrollReplayTest {
+
+    private static final File REPORT_DIR = new File("build/reports/scroll-replay");
+
+    @Test
+    public void fastScroll() throws Exception {
+        replay("fast_scroll");
+    }
+
+    @Test
+    public void fling() throws Exception {
+        replay("fling");
+    }
+
+    private void replay(String trace) throws Exception {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        ScrollReplayHarness harness = new ScrollReplayHarness(trace);
+        harness.replay(activity);
+        harness.writeReport(REPORT_DIR);
+        if (!ScrollReplayHarness.isAllocationMeasured()) {
+            System.err.println(trace + ": allocations were not measured, this JVM does not count them per thread");
+        }
+        List<String> violations = harness.budgetViolations();
+        assertTrue(String.join("\n", violations), violations.isEmpty());
+    }
+}